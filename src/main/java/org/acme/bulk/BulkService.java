@@ -0,0 +1,476 @@
+package org.acme.bulk;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.acme.cache.RepresentationCache;
+import org.acme.dto.BulkItemResult;
+import org.acme.dto.BulkResponse;
+import org.acme.dto.CharacterRequest;
+import org.acme.dto.ClanRequest;
+import org.acme.dto.DomainExpansionRequest;
+import org.acme.dto.TechniqueRequest;
+import org.acme.entity.Character;
+import org.acme.entity.Clan;
+import org.acme.entity.DomainExpansion;
+import org.acme.entity.Rank;
+import org.acme.entity.Technique;
+import org.acme.pagination.Paginator;
+import org.acme.search.FullTextSearch;
+import org.acme.search.NameSearch;
+import org.acme.search.TextNormalizer;
+import org.acme.transaction.AfterCommit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Criação e upsert em lote das quatro entidades, para cargas e sincronizações do catálogo.
+ * Os nomes referenciados (clãs, técnicas, expansões) e os já existentes são resolvidos por
+ * consultas {@code in (...)} antes do loop, os inserts saem em lotes JDBC
+ * ({@code quarkus.hibernate-orm.jdbc.statement-batch-size}) e o contexto de persistência é
+ * descarregado a cada {@code kokusen.bulk.flush-size} itens. Um item inválido não interrompe o
+ * lote: cada um recebe seu próprio resultado.
+ */
+@ApplicationScoped
+public class BulkService {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    // tamanho máximo de cada lista em "in (...)"
+    private static final int IN_CHUNK = 1000;
+
+    private static final String NO_CLAN = TextNormalizer.normalize("Sem Clã");
+
+    private static final int MAX_CHARACTER_NAME = 150;
+    private static final int MAX_EXPANSION_NAME = 150;
+    private static final int MAX_EXPANSION_EFFECT = 2000;
+
+    public enum Mode {
+        CREATE, UPSERT;
+
+        public static Mode parse(String value) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value)) return mode;
+            }
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Invalid mode: " + value + " (use create or upsert)"))
+                    .build());
+        }
+    }
+
+    /**
+     * Entidade de nome e texto (clã, técnica, expansão de domínio), com os limites das colunas.
+     */
+    private record NamedType<E extends PanacheEntity>(Class<E> type, String label, String path,
+                                                      int maxName, int maxText,
+                                                      BiFunction<String, String, E> factory,
+                                                      BiConsumer<E, Item> update) {
+    }
+
+    private record Item(String name, String text) {
+    }
+
+    private record Indexed(Class<?> type, Long id, String name, String text) {
+    }
+
+    private static final NamedType<Clan> CLANS = new NamedType<>(Clan.class, "Clan", "/clans", 120, 1000,
+            Clan::new, (c, item) -> {
+                c.name = item.name();
+                c.description = item.text();
+            });
+
+    private static final NamedType<Technique> TECHNIQUES = new NamedType<>(Technique.class, "Technique", "/techniques", 150, 1000,
+            Technique::new, (t, item) -> {
+                t.name = item.name();
+                t.description = item.text();
+            });
+
+    private static final NamedType<DomainExpansion> EXPANSIONS = new NamedType<>(DomainExpansion.class, "DomainExpansion",
+            "/domain-expansions", MAX_EXPANSION_NAME, MAX_EXPANSION_EFFECT,
+            (name, effect) -> new DomainExpansion(name, effect, null), (d, item) -> {
+                d.name = item.name();
+                d.effect = item.text();
+            });
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    NameSearch nameSearch;
+
+    @Inject
+    FullTextSearch fullTextSearch;
+
+    @Inject
+    RepresentationCache representationCache;
+
+    @Inject
+    Paginator paginator;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    @ConfigProperty(name = "kokusen.bulk.max-items", defaultValue = "10000")
+    int maxItems;
+
+    @ConfigProperty(name = "kokusen.bulk.flush-size", defaultValue = "500")
+    int flushSize;
+
+    /**
+     * Itens de um corpo em array JSON ou NDJSON (um objeto por linha).
+     */
+    public <T> List<T> read(InputStream body, Class<T> type) {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> it = mapper.readerFor(type).readValues(body)) {
+            while (it.hasNextValue()) {
+                if (items.size() == maxItems) {
+                    throw new WebApplicationException(Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                            .entity(Map.of("error", "Batch exceeds " + maxItems + " items"))
+                            .build());
+                }
+                items.add(it.nextValue());
+            }
+        } catch (IOException e) {
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Invalid batch body: " + e.getMessage()))
+                    .build());
+        }
+        return items;
+    }
+
+    @Transactional
+    public BulkResponse clans(List<ClanRequest> items, Mode mode) {
+        return named(CLANS, items.stream().map(i -> i == null ? null : new Item(i.name, i.description)).toList(), mode);
+    }
+
+    @Transactional
+    public BulkResponse techniques(List<TechniqueRequest> items, Mode mode) {
+        return named(TECHNIQUES, items.stream().map(i -> i == null ? null : new Item(i.name, i.description)).toList(), mode);
+    }
+
+    @Transactional
+    public BulkResponse domainExpansions(List<DomainExpansionRequest> items, Mode mode) {
+        return named(EXPANSIONS, items.stream().map(i -> i == null ? null : new Item(i.name, i.effect)).toList(), mode);
+    }
+
+    private <E extends PanacheEntity> BulkResponse named(NamedType<E> t, List<Item> items, Mode mode) {
+        BulkResponse response = new BulkResponse();
+        List<Indexed> indexed = new ArrayList<>();
+
+        Map<String, Long> existing = new HashMap<>();
+        for (Object[] row : rowsByName("select e.normalizedName, e.id from " + t.label() + " e where e.normalizedName in ?1",
+                names(items.stream().map(i -> i == null ? null : i.name()).toList()))) {
+            existing.put((String) row[0], (Long) row[1]);
+        }
+
+        Set<String> seen = new HashSet<>();
+        for (int from = 0; from < items.size(); from += flushSize) {
+            int to = Math.min(items.size(), from + flushSize);
+
+            Map<Long, E> targets = new HashMap<>();
+            if (mode == Mode.UPSERT) {
+                List<Long> ids = new ArrayList<>();
+                for (Item item : items.subList(from, to)) {
+                    Long id = item == null || isBlank(item.name()) ? null : existing.get(TextNormalizer.normalize(item.name()));
+                    if (id != null) ids.add(id);
+                }
+                em.unwrap(Session.class).byMultipleIds(t.type()).multiLoad(ids).forEach(e -> targets.put(e.id, e));
+            }
+
+            for (int i = from; i < to; i++) {
+                Item item = items.get(i);
+                if (item == null || isBlank(item.name())) {
+                    response.add(BulkItemResult.failed(i, 400, t.label() + " name is required"));
+                    continue;
+                }
+                String text = item.text() != null ? item.text() : "";
+                if (item.name().length() > t.maxName() || text.length() > t.maxText()) {
+                    response.add(BulkItemResult.failed(i, 400, t.label() + " name or text too long (max "
+                            + t.maxName() + "/" + t.maxText() + " characters)"));
+                    continue;
+                }
+                String key = TextNormalizer.normalize(item.name());
+                if (!seen.add(key)) {
+                    response.add(BulkItemResult.failed(i, 409, t.label() + " name repeated in batch"));
+                    continue;
+                }
+
+                Long id = existing.get(key);
+                E entity;
+                int status;
+                if (id == null) {
+                    entity = t.factory().apply(item.name(), text);
+                    entity.persist();
+                    status = 201;
+                } else if (mode == Mode.CREATE) {
+                    response.add(BulkItemResult.failed(i, 409, t.label() + " with this name already exists"));
+                    continue;
+                } else {
+                    entity = targets.get(id);
+                    t.update().accept(entity, new Item(item.name(), text));
+                    status = 200;
+                }
+                response.add(BulkItemResult.ok(i, status, entity.id, t.path() + "/" + entity.id));
+                indexed.add(new Indexed(t.type(), entity.id, item.name(), text));
+            }
+
+            em.flush();
+            em.clear();
+        }
+
+        finish(indexed);
+        return response;
+    }
+
+    /**
+     * Personagens em lote. Clã, técnicas e expansão são referenciados por nome como no
+     * {@code POST /characters}; com {@link Mode#UPSERT} o personagem de mesmo nome é atualizado.
+     */
+    @Transactional
+    public BulkResponse characters(List<CharacterRequest> items, Mode mode) {
+        BulkResponse response = new BulkResponse();
+        List<Indexed> indexed = new ArrayList<>();
+
+        Set<String> clanNames = new HashSet<>(Set.of(NO_CLAN));
+        Set<String> techniqueNames = new HashSet<>();
+        Set<String> expansionNames = new HashSet<>();
+        for (CharacterRequest item : items) {
+            if (item == null) continue;
+            if (!isBlank(item.clanName)) clanNames.add(TextNormalizer.normalize(item.clanName));
+            if (item.techniqueNames != null) {
+                item.techniqueNames.stream().filter(n -> !isBlank(n)).map(TextNormalizer::normalize).forEach(techniqueNames::add);
+            }
+            if (!isBlank(item.domainExpansionName)) expansionNames.add(TextNormalizer.normalize(item.domainExpansionName));
+        }
+
+        Map<String, Long> clans = new HashMap<>();
+        rowsByName("select c.normalizedName, c.id from Clan c where c.normalizedName in ?1", clanNames)
+                .forEach(row -> clans.put((String) row[0], (Long) row[1]));
+        Map<String, Long> techniques = new HashMap<>();
+        rowsByName("select t.normalizedName, t.id from Technique t where t.normalizedName in ?1", techniqueNames)
+                .forEach(row -> techniques.put((String) row[0], (Long) row[1]));
+        // nome -> {id, id do dono}
+        Map<String, Object[]> expansions = new HashMap<>();
+        rowsByName("select d.normalizedName, d.id, d.owner.id from DomainExpansion d where d.normalizedName in ?1", expansionNames)
+                .forEach(row -> expansions.put((String) row[0], new Object[]{row[1], row[2]}));
+        Map<String, List<Long>> existing = new HashMap<>();
+        if (mode == Mode.UPSERT) {
+            rowsByName("select c.normalizedName, c.id from Character c where c.normalizedName in ?1",
+                    names(items.stream().map(i -> i == null ? null : i.name).toList()))
+                    .forEach(row -> existing.computeIfAbsent((String) row[0], k -> new ArrayList<>()).add((Long) row[1]));
+        }
+
+        Set<String> seen = new HashSet<>();
+        Set<String> claimedExpansions = new HashSet<>();
+        for (int from = 0; from < items.size(); from += flushSize) {
+            int to = Math.min(items.size(), from + flushSize);
+            Map<Long, Character> targets = mode == Mode.UPSERT ? loadCharacters(items.subList(from, to), existing) : Map.of();
+            List<DomainExpansion> newExpansions = new ArrayList<>();
+
+            for (int i = from; i < to; i++) {
+                CharacterRequest item = items.get(i);
+                if (item == null || isBlank(item.name)) {
+                    response.add(BulkItemResult.failed(i, 400, "Character name is required"));
+                    continue;
+                }
+                if (item.name.length() > MAX_CHARACTER_NAME) {
+                    response.add(BulkItemResult.failed(i, 400, "Character name too long (max " + MAX_CHARACTER_NAME + " characters)"));
+                    continue;
+                }
+
+                Rank rank;
+                try {
+                    rank = item.rank != null ? Rank.valueOf(item.rank.toUpperCase()) : Rank.NON_SORCERER;
+                } catch (IllegalArgumentException e) {
+                    response.add(BulkItemResult.failed(i, 400, "Invalid rank: " + item.rank));
+                    continue;
+                }
+
+                Long clanId = clans.get(isBlank(item.clanName) ? NO_CLAN : TextNormalizer.normalize(item.clanName));
+                if (clanId == null && !isBlank(item.clanName)) {
+                    response.add(BulkItemResult.failed(i, 400, "clan '" + item.clanName + "' not found"));
+                    continue;
+                }
+
+                Set<Long> techniqueIds = new LinkedHashSet<>();
+                String missingTechnique = null;
+                if (item.techniqueNames != null) {
+                    for (String name : item.techniqueNames) {
+                        Long id = isBlank(name) ? null : techniques.get(TextNormalizer.normalize(name));
+                        if (id == null) {
+                            missingTechnique = name;
+                            break;
+                        }
+                        techniqueIds.add(id);
+                    }
+                }
+                if (missingTechnique != null) {
+                    response.add(BulkItemResult.failed(i, 400, "technique '" + missingTechnique + "' not found"));
+                    continue;
+                }
+
+                String key = TextNormalizer.normalize(item.name);
+                Character target = null;
+                if (mode == Mode.UPSERT) {
+                    if (!seen.add(key)) {
+                        response.add(BulkItemResult.failed(i, 409, "Character name repeated in batch"));
+                        continue;
+                    }
+                    List<Long> ids = existing.get(key);
+                    if (ids != null && ids.size() > 1) {
+                        response.add(BulkItemResult.failed(i, 409, "Multiple characters named '" + item.name + "'"));
+                        continue;
+                    }
+                    if (ids != null) target = targets.get(ids.get(0));
+                }
+
+                String expansionKey = isBlank(item.domainExpansionName) ? null : TextNormalizer.normalize(item.domainExpansionName);
+                Object[] expansion = expansionKey == null ? null : expansions.get(expansionKey);
+                if (expansionKey != null) {
+                    String error = expansionError(item, expansionKey, expansion, target, claimedExpansions);
+                    if (error != null) {
+                        response.add(BulkItemResult.failed(i, 409, error));
+                        continue;
+                    }
+                }
+
+                Character character = target != null ? target : new Character();
+                character.name = item.name;
+                character.rank = rank;
+                character.clan = clanId != null ? em.getReference(Clan.class, clanId) : null;
+                List<Technique> resolved = new ArrayList<>();
+                techniqueIds.forEach(id -> resolved.add(em.getReference(Technique.class, id)));
+                character.techniques = resolved;
+                if (target == null) {
+                    character.persist();
+                }
+
+                if (expansionKey != null) {
+                    claimedExpansions.add(expansionKey);
+                    if (expansion == null) {
+                        String effect = item.domainExpansionEffect != null ? item.domainExpansionEffect : "";
+                        newExpansions.add(new DomainExpansion(item.domainExpansionName, effect, character));
+                    } else if (expansion[1] == null) {
+                        em.getReference(DomainExpansion.class, (Long) expansion[0]).owner = character;
+                    }
+                }
+
+                response.add(BulkItemResult.ok(i, target == null ? 201 : 200, character.id, "/characters/" + character.id));
+                indexed.add(new Indexed(Character.class, character.id, character.name, null));
+            }
+
+            // depois dos personagens, para os inserts de cada tabela saírem no mesmo lote JDBC
+            for (DomainExpansion d : newExpansions) {
+                d.persist();
+                indexed.add(new Indexed(DomainExpansion.class, d.id, d.name, d.effect));
+            }
+
+            em.flush();
+            em.clear();
+        }
+
+        finish(indexed);
+        return response;
+    }
+
+    private static String expansionError(CharacterRequest item, String key, Object[] expansion,
+                                         Character target, Set<String> claimed) {
+        if (claimed.contains(key)) {
+            return "domain expansion '" + item.domainExpansionName + "' repeated in batch";
+        }
+        if (expansion != null && expansion[1] != null && (target == null || !expansion[1].equals(target.id))) {
+            return "domain expansion '" + item.domainExpansionName + "' already assigned to character id " + expansion[1];
+        }
+        if (expansion == null && (item.domainExpansionName.length() > MAX_EXPANSION_NAME
+                || (item.domainExpansionEffect != null && item.domainExpansionEffect.length() > MAX_EXPANSION_EFFECT))) {
+            return "domain expansion '" + item.domainExpansionName + "' name or effect too long";
+        }
+        if (target != null && target.domainExpansion != null && !key.equals(target.domainExpansion.normalizedName)) {
+            return "character already has domain expansion '" + target.domainExpansion.name + "'";
+        }
+        return null;
+    }
+
+    /**
+     * Personagens a atualizar neste trecho do lote, com clã e expansão no mesmo select.
+     */
+    private Map<Long, Character> loadCharacters(List<CharacterRequest> chunk, Map<String, List<Long>> existing) {
+        Set<Long> ids = new HashSet<>();
+        for (CharacterRequest item : chunk) {
+            if (item == null || isBlank(item.name)) continue;
+            List<Long> matches = existing.get(TextNormalizer.normalize(item.name));
+            if (matches != null && matches.size() == 1) ids.add(matches.get(0));
+        }
+        Map<Long, Character> targets = new HashMap<>();
+        if (ids.isEmpty()) return targets;
+
+        em.createQuery("select c from Character c left join fetch c.clan left join fetch c.domainExpansion where c.id in ?1",
+                        Character.class)
+                .setParameter(1, ids)
+                .getResultList()
+                .forEach(c -> targets.put(c.id, c));
+        return targets;
+    }
+
+    /**
+     * Executa a consulta com os nomes em blocos de {@link #IN_CHUNK}, juntando as linhas.
+     */
+    private List<Object[]> rowsByName(String jpql, Collection<String> names) {
+        List<Object[]> rows = new ArrayList<>();
+        List<String> all = new ArrayList<>(names);
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            rows.addAll(em.createQuery(jpql, Object[].class)
+                    .setParameter(1, all.subList(from, Math.min(all.size(), from + IN_CHUNK)))
+                    .getResultList());
+        }
+        return rows;
+    }
+
+    private static Set<String> names(List<String> raw) {
+        Set<String> names = new HashSet<>();
+        for (String name : raw) {
+            if (!isBlank(name)) names.add(TextNormalizer.normalize(name));
+        }
+        return names;
+    }
+
+    /**
+     * Índices de busca, cache e contagens: uma única ação depois do commit para o lote todo.
+     */
+    private void finish(List<Indexed> indexed) {
+        if (indexed.isEmpty()) return;
+
+        afterCommit.run(() -> indexed.forEach(e -> {
+            nameSearch.index(e.type(), e.id(), e.name());
+            fullTextSearch.index(e.type(), e.id(), e.name(), e.text());
+        }));
+        representationCache.clear();
+        paginator.invalidateCounts();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
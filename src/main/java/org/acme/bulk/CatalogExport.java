@@ -0,0 +1,140 @@
+package org.acme.bulk;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.acme.entity.Character;
+import org.acme.entity.Clan;
+import org.acme.entity.DomainExpansion;
+import org.acme.entity.Technique;
+import org.acme.representation.CharacterRepresentation;
+import org.acme.representation.ClanRepresentation;
+import org.acme.representation.DomainExpansionRepresentation;
+import org.acme.representation.TechniqueRepresentation;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Exportação do catálogo inteiro em NDJSON (uma representação por linha), lida de um cursor
+ * {@code FORWARD_ONLY} somente leitura. A cada {@code kokusen.export.chunk-size} linhas as
+ * relações do bloco são carregadas de uma vez, o bloco é escrito, o stream é descarregado para o
+ * socket e o contexto de persistência é limpo: o heap usado não depende do tamanho da tabela.
+ */
+@ApplicationScoped
+public class CatalogExport {
+
+    private static final byte NEWLINE = '\n';
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    ObjectMapper mapper;
+
+    @ConfigProperty(name = "kokusen.export.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    @ConfigProperty(name = "kokusen.export.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    /**
+     * Clã e expansão vêm no join; as técnicas, pelo {@code @BatchSize} de {@link Character#techniques}.
+     */
+    @Transactional
+    @TransactionConfiguration(timeoutFromConfigProperty = "kokusen.export.transaction-timeout")
+    public void characters(OutputStream out) {
+        export(out, Character.class,
+                "select c from Character c left join fetch c.clan left join fetch c.domainExpansion order by c.id",
+                chunk -> chunk.stream().map(CharacterRepresentation::from).toList());
+    }
+
+    @Transactional
+    @TransactionConfiguration(timeoutFromConfigProperty = "kokusen.export.transaction-timeout")
+    public void clans(OutputStream out) {
+        export(out, Clan.class, "select c from Clan c order by c.id", chunk -> {
+            var memberIds = Clan.memberIdsByClan(chunk.stream().map(c -> c.id).toList());
+            return chunk.stream()
+                    .map(c -> ClanRepresentation.from(c, memberIds.getOrDefault(c.id, List.of())))
+                    .toList();
+        });
+    }
+
+    @Transactional
+    @TransactionConfiguration(timeoutFromConfigProperty = "kokusen.export.transaction-timeout")
+    public void techniques(OutputStream out) {
+        export(out, Technique.class, "select t from Technique t order by t.id", chunk -> {
+            var userIds = Technique.userIdsByTechnique(chunk.stream().map(t -> t.id).toList());
+            return chunk.stream()
+                    .map(t -> TechniqueRepresentation.from(t, userIds.getOrDefault(t.id, List.of())))
+                    .toList();
+        });
+    }
+
+    @Transactional
+    @TransactionConfiguration(timeoutFromConfigProperty = "kokusen.export.transaction-timeout")
+    public void domainExpansions(OutputStream out) {
+        export(out, DomainExpansion.class,
+                "select d from DomainExpansion d left join fetch d.owner o left join fetch o.clan order by d.id",
+                chunk -> chunk.stream().map(DomainExpansionRepresentation::from).toList());
+    }
+
+    private <E> void export(OutputStream out, Class<E> type, String query,
+                            Function<List<E>, List<?>> represent) {
+
+        Session session = em.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+
+        // o destino é o stream da resposta: o Jackson não o fecha nem descarrega a cada linha, só ao fim do bloco
+        ObjectWriter writer = mapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        List<E> chunk = new ArrayList<>(chunkSize);
+
+        try (ScrollableResults<E> rows = session.createSelectionQuery(query, type)
+                .setReadOnly(true)
+                .setFetchSize(fetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+
+            while (rows.next()) {
+                chunk.add(rows.get());
+                if (chunk.size() == chunkSize) {
+                    write(out, writer, represent.apply(chunk));
+                    chunk.clear();
+                    session.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                write(out, writer, represent.apply(chunk));
+            }
+        }
+    }
+
+    private static void write(OutputStream out, ObjectWriter writer, List<?> representations) {
+        try {
+            for (Object representation : representations) {
+                writer.writeValue(out, representation);
+                out.write(NEWLINE);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // cliente desconectou: aborta a leitura e a transação
+            throw new UncheckedIOException(e);
+        }
+    }
+}
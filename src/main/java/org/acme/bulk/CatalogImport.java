@@ -0,0 +1,249 @@
+package org.acme.bulk;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.dto.BulkItemResult;
+import org.acme.dto.BulkResponse;
+import org.acme.dto.CharacterRequest;
+import org.acme.dto.ClanRequest;
+import org.acme.dto.DomainExpansionRequest;
+import org.acme.dto.ImportEvent;
+import org.acme.dto.TechniqueRequest;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Importação de NDJSON consumido enquanto chega: as linhas são lidas do corpo da requisição uma a
+ * uma e agrupadas em blocos de {@code kokusen.import.chunk-size}, e cada bloco passa pelo
+ * {@link BulkService} na sua própria transação (validação, nomes resolvidos em lote, inserts em
+ * lotes JDBC) e é confirmado antes de o próximo ser lido. Só um bloco fica em memória, e a leitura
+ * do socket para enquanto ele é gravado. A resposta, também NDJSON, traz os erros de cada linha à
+ * medida que aparecem, o progresso após cada bloco e o resumo no fim.
+ */
+@ApplicationScoped
+public class CatalogImport {
+
+    private static final Logger LOG = Logger.getLogger(CatalogImport.class);
+
+    private static final byte NEWLINE = '\n';
+
+    @Inject
+    BulkService bulkService;
+
+    @Inject
+    ObjectMapper mapper;
+
+    @ConfigProperty(name = "kokusen.import.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "kokusen.import.max-line-size", defaultValue = "64K")
+    MemorySize maxLineSize;
+
+    // erros reportados um a um; os seguintes só entram na contagem de failed
+    @ConfigProperty(name = "kokusen.import.max-errors", defaultValue = "1000")
+    int maxErrors;
+
+    public void clans(InputStream in, OutputStream out, BulkService.Mode mode) {
+        run(in, out, ClanRequest.class, items -> bulkService.clans(items, mode));
+    }
+
+    public void techniques(InputStream in, OutputStream out, BulkService.Mode mode) {
+        run(in, out, TechniqueRequest.class, items -> bulkService.techniques(items, mode));
+    }
+
+    public void domainExpansions(InputStream in, OutputStream out, BulkService.Mode mode) {
+        run(in, out, DomainExpansionRequest.class, items -> bulkService.domainExpansions(items, mode));
+    }
+
+    public void characters(InputStream in, OutputStream out, BulkService.Mode mode) {
+        run(in, out, CharacterRequest.class, items -> bulkService.characters(items, mode));
+    }
+
+    private <T> void run(InputStream in, OutputStream out, Class<T> type, Function<List<T>, BulkResponse> commit) {
+        Progress progress = new Progress(out);
+        ObjectReader reader = mapper.readerFor(type);
+        LineReader lines = new LineReader(in, (int) Math.min(maxLineSize.asLongValue(), Integer.MAX_VALUE));
+
+        List<T> chunk = new ArrayList<>(chunkSize);
+        long[] chunkLines = new long[chunkSize];
+
+        try {
+            byte[] line;
+            while ((line = lines.next()) != null) {
+                long number = lines.number();
+                if (line == LineReader.TOO_LONG) {
+                    progress.failed(number, 413, "Line exceeds " + maxLineSize.asLongValue() + " bytes");
+                    continue;
+                }
+                if (isBlank(line)) continue;
+
+                T item;
+                try {
+                    item = reader.readValue(line);
+                } catch (IOException e) {
+                    progress.failed(number, 400, "Malformed JSON");
+                    continue;
+                }
+                if (item == null) {
+                    progress.failed(number, 400, "Line must be a JSON object");
+                    continue;
+                }
+
+                chunkLines[chunk.size()] = number;
+                chunk.add(item);
+                if (chunk.size() == chunkSize) {
+                    progress.committed(commit.apply(chunk), chunkLines, number);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                progress.committed(commit.apply(chunk), chunkLines, lines.number());
+            }
+            progress.done();
+        } catch (IOException e) {
+            // corpo interrompido ou cliente desconectado; os blocos já confirmados permanecem
+            LOG.warnf("Import of %s interrupted after %d lines: %s", type.getSimpleName(), lines.number(), e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (b != ' ' && b != '\t') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Contadores da importação e escrita dos eventos na resposta.
+     */
+    private final class Progress {
+        private final OutputStream out;
+        // o destino é o stream da resposta: o Jackson não o fecha nem descarrega a cada evento
+        private final ObjectWriter writer = mapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        private long lines;
+        private long created;
+        private long updated;
+        private long failed;
+
+        Progress(OutputStream out) {
+            this.out = out;
+        }
+
+        void failed(long line, int status, String error) throws IOException {
+            lines = Math.max(lines, line);
+            if (failed++ < maxErrors) {
+                write(ImportEvent.error(line, status, error));
+            }
+        }
+
+        void committed(BulkResponse response, long[] chunkLines, long lastLine) throws IOException {
+            for (BulkItemResult result : response.results) {
+                if (result.error != null) {
+                    failed(chunkLines[result.index], result.status, result.error);
+                }
+            }
+            created += response.created;
+            updated += response.updated;
+            lines = lastLine;
+            write(ImportEvent.progress("progress", lines, created, updated, failed));
+            out.flush();
+        }
+
+        void done() throws IOException {
+            write(ImportEvent.progress("done", lines, created, updated, failed));
+            out.flush();
+        }
+
+        private void write(ImportEvent event) throws IOException {
+            writer.writeValue(out, event);
+            out.write(NEWLINE);
+        }
+    }
+
+    /**
+     * Lê o corpo linha a linha sem carregá-lo inteiro. Linhas acima de {@code maxLength} bytes são
+     * descartadas até a quebra seguinte e devolvidas como {@link #TOO_LONG}.
+     */
+    static final class LineReader {
+        static final byte[] TOO_LONG = new byte[0];
+
+        private final InputStream in;
+        private final int maxLength;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int limit;
+        private long number;
+
+        private byte[] line = new byte[256];
+
+        LineReader(InputStream in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        long number() {
+            return number;
+        }
+
+        byte[] next() throws IOException {
+            int length = 0;
+            boolean tooLong = false;
+            boolean any = false;
+
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        if (!any) return null;
+                        break;
+                    }
+                }
+                any = true;
+                int start = position;
+                while (position < limit && buffer[position] != NEWLINE) position++;
+                int count = position - start;
+
+                if (!tooLong) {
+                    if (length + count > maxLength) {
+                        tooLong = true;
+                    } else {
+                        if (length + count > line.length) {
+                            line = Arrays.copyOf(line, Math.min(maxLength, Math.max(line.length * 2, length + count)));
+                        }
+                        System.arraycopy(buffer, start, line, length, count);
+                        length += count;
+                    }
+                }
+
+                if (position < limit) {
+                    position++; // pula o '\n'
+                    break;
+                }
+            }
+
+            number++;
+            if (tooLong) return TOO_LONG;
+            if (length > 0 && line[length - 1] == '\r') length--;
+            return Arrays.copyOf(line, length);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.acme.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache em memória limitado por número de entradas, por bytes (segundo o {@code weigher})
+ * e por TTL. Ao estourar um dos limites descarta as entradas usadas há mais tempo (LRU).
+ * As operações são curtas e serializadas por um único lock.
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * Contadores acumulados desde a criação do cache.
+     */
+    public record Stats(long hits, long misses, long evictions, int size, long bytes) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private record Entry<V>(V value, long weight, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final ToLongFunction<V> weigher;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxEntries, long maxBytes, Duration ttl, ToLongFunction<V> weigher) {
+        this(maxEntries, maxBytes, ttl, weigher, System::nanoTime);
+    }
+
+    public BoundedCache(int maxEntries, long maxBytes, Duration ttl, ToLongFunction<V> weigher, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+        this.clock = nanoClock;
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - clock.getAsLong() <= 0) {
+                removeLocked(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Guarda {@code value}; valores maiores que o orçamento inteiro de bytes não são guardados.
+     */
+    public void put(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        if (weight > maxBytes || maxEntries <= 0) return;
+
+        lock.lock();
+        try {
+            removeLocked(key);
+            entries.put(key, new Entry<>(value, weight, clock.getAsLong() + ttlNanos));
+            bytes += weight;
+
+            Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().weight();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public V remove(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = removeLocked(key);
+            return entry != null ? entry.value() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry<V> removeLocked(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) bytes -= entry.weight();
+        return entry;
+    }
+}
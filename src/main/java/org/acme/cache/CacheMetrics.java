@@ -0,0 +1,91 @@
+package org.acme.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.idempotency.IdempotencyStore;
+
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publica as mesmas estatísticas de {@code GET /cache/stats} como métricas ({@code cache.gets},
+ * {@code cache.evictions}, {@code cache.size}, {@code cache.bytes}, com a tag {@code cache}).
+ * Os valores são lidos dos contadores dos caches na hora da coleta, sem custo nas requisições;
+ * no cache de idempotência os hits são os reenvios respondidos com a resposta guardada. Com o store em
+ * banco, {@code cache.size} e {@code cache.bytes} de idempotência vêm da última varredura, não de uma
+ * consulta por coleta.
+ */
+@ApplicationScoped
+public class CacheMetrics implements MeterBinder {
+
+    // cada stats() trava o cache; os cinco medidores de uma coleta leem uma só cópia
+    private static final long SNAPSHOT_NANOS = 1_000_000_000L;
+
+    @Inject
+    RepresentationCache representationCache;
+
+    @Inject
+    IdempotencyStore idempotencyStore;
+
+    // o registry só guarda referências fracas para o objeto lido pelos medidores
+    private Snapshot representations;
+    private Snapshot idempotency;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        representations = new Snapshot(representationCache::stats);
+        idempotency = new Snapshot(idempotencyStore::stats);
+        bind(registry, "representations", representations);
+        bind(registry, "idempotency", idempotency);
+    }
+
+    private static void bind(MeterRegistry registry, String cache, Snapshot stats) {
+        counter(registry, "cache.gets", cache, stats, s -> s.hits(), "result", "hit");
+        counter(registry, "cache.gets", cache, stats, s -> s.misses(), "result", "miss");
+        counter(registry, "cache.evictions", cache, stats, s -> s.evictions());
+        gauge(registry, "cache.size", cache, stats, s -> s.size());
+        gauge(registry, "cache.bytes", cache, stats, s -> s.bytes());
+    }
+
+    private static void counter(MeterRegistry registry, String name, String cache, Snapshot stats,
+                                ToDoubleFunction<BoundedCache.Stats> value, String... tags) {
+        FunctionCounter.builder(name, stats, s -> value.applyAsDouble(s.get()))
+                .tag("cache", cache)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static void gauge(MeterRegistry registry, String name, String cache, Snapshot stats,
+                              ToDoubleFunction<BoundedCache.Stats> value) {
+        Gauge.builder(name, stats, s -> value.applyAsDouble(s.get()))
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    /**
+     * Estatísticas reaproveitadas por todos os medidores de um cache durante a mesma coleta.
+     */
+    private static final class Snapshot {
+
+        private final Supplier<BoundedCache.Stats> source;
+        private BoundedCache.Stats stats;
+        private long takenAt;
+
+        Snapshot(Supplier<BoundedCache.Stats> source) {
+            this.source = source;
+        }
+
+        synchronized BoundedCache.Stats get() {
+            long now = System.nanoTime();
+            if (stats == null || now - takenAt > SNAPSHOT_NANOS) {
+                stats = source.get();
+                takenAt = now;
+            }
+            return stats;
+        }
+    }
+}
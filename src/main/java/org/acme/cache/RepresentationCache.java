@@ -0,0 +1,148 @@
+package org.acme.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.filter.ETags;
+import org.acme.transaction.AfterCommit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through das representações servidas pelos {@code GET /{id}}, já serializadas em JSON.
+ * Os endpoints de escrita invalidam depois do commit cada entidade cuja representação mudou,
+ * inclusive as relacionadas (membros de um clã renomeado, usuários de uma técnica removida etc.).
+ */
+@ApplicationScoped
+public class RepresentationCache {
+
+    private record Key(Class<?> type, Long id) {
+    }
+
+    /**
+     * JSON da representação e o ETag correspondente.
+     */
+    public record Entry(byte[] body, String etag) {
+    }
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    @ConfigProperty(name = "kokusen.cache.representations.max-entries", defaultValue = "10000")
+    int maxEntries;
+
+    @ConfigProperty(name = "kokusen.cache.representations.max-bytes", defaultValue = "16M")
+    MemorySize maxBytes;
+
+    @ConfigProperty(name = "kokusen.cache.representations.ttl", defaultValue = "10m")
+    Duration ttl;
+
+    private BoundedCache<Key, Entry> cache;
+
+    // incrementado a cada invalidação; uma carga concorrente com ela não pode ficar no cache
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>(maxEntries, maxBytes.asLongValue(), ttl, e -> e.body().length + e.etag().length());
+    }
+
+    /**
+     * JSON da representação de {@code type}/{@code id}. Um hit completa na hora, na thread de quem
+     * chamou (o event loop, nos {@code GET /{id}}); num miss {@code loader} roda num worker, com um
+     * contexto de requisição próprio para a sessão do Hibernate, e o resultado vai para o cache.
+     * Completa com {@code null} quando o loader não encontra a entidade (nada é guardado).
+     */
+    public Uni<Entry> get(Class<?> type, Long id, Supplier<Object> loader) {
+        Key key = new Key(type, id);
+        Entry entry = cache.get(key);
+        if (entry != null) return Uni.createFrom().item(entry);
+
+        return Uni.createFrom().item(() -> loadInRequestContext(key, loader))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    private Entry loadInRequestContext(Key key, Supplier<Object> loader) {
+        ManagedContext requestContext = Arc.container().requestContext();
+        if (requestContext.isActive()) {
+            return load(key, loader);
+        }
+        requestContext.activate();
+        try {
+            return load(key, loader);
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    private Entry load(Key key, Supplier<Object> loader) {
+        long seen = invalidations.get();
+        Object representation = loader.get();
+        if (representation == null) return null;
+
+        byte[] body = serialize(representation);
+        Entry entry = new Entry(body, ETags.of(body));
+        cache.put(key, entry);
+        if (invalidations.get() != seen) {
+            // uma escrita terminou durante a carga: o JSON pode estar velho
+            cache.remove(key);
+        }
+        return entry;
+    }
+
+    public void evict(Class<?> type, Long id) {
+        if (id == null) return;
+        evict(type, List.of(id));
+    }
+
+    /**
+     * Remove as entradas depois do commit da transação corrente.
+     */
+    public void evict(Class<?> type, Collection<Long> ids) {
+        List<Long> keys = ids.stream().filter(java.util.Objects::nonNull).toList();
+        if (keys.isEmpty()) return;
+
+        afterCommit.run(() -> {
+            invalidations.incrementAndGet();
+            keys.forEach(id -> cache.remove(new Key(type, id)));
+        });
+    }
+
+    /**
+     * Esvazia o cache depois do commit; usado pelas cargas em lote, que mudam representações
+     * relacionadas demais para invalidar uma a uma.
+     */
+    public void clear() {
+        afterCommit.run(() -> {
+            invalidations.incrementAndGet();
+            cache.clear();
+        });
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+
+    private byte[] serialize(Object representation) {
+        try {
+            return mapper.writeValueAsBytes(representation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + representation.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.acme.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de um item de um lote, na mesma posição ({@code index}) do corpo enviado.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+    public int index;
+    public int status;
+    public Long id;
+    public String href;
+    public String error;
+
+    public BulkItemResult() {}
+
+    public static BulkItemResult ok(int index, int status, Long id, String href) {
+        BulkItemResult r = new BulkItemResult();
+        r.index = index;
+        r.status = status;
+        r.id = id;
+        r.href = href;
+        return r;
+    }
+
+    public static BulkItemResult failed(int index, int status, String error) {
+        BulkItemResult r = new BulkItemResult();
+        r.index = index;
+        r.status = status;
+        r.error = error;
+        return r;
+    }
+}
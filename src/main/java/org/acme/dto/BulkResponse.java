@@ -0,0 +1,20 @@
+package org.acme.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkResponse {
+    public int created;
+    public int updated;
+    public int failed;
+    public List<BulkItemResult> results = new ArrayList<>();
+
+    public BulkResponse() {}
+
+    public void add(BulkItemResult result) {
+        results.add(result);
+        if (result.status == 201) created++;
+        else if (result.status == 200) updated++;
+        else failed++;
+    }
+}
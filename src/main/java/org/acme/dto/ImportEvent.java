@@ -0,0 +1,40 @@
+package org.acme.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Uma linha da resposta de uma importação: o erro de uma linha do arquivo ({@code error}), o
+ * progresso após cada bloco confirmado ({@code progress}) ou o resumo final ({@code done}).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEvent {
+    public String event;
+    public Long line;
+    public Integer status;
+    public String error;
+    public Long lines;
+    public Long created;
+    public Long updated;
+    public Long failed;
+
+    public ImportEvent() {}
+
+    public static ImportEvent error(long line, int status, String error) {
+        ImportEvent e = new ImportEvent();
+        e.event = "error";
+        e.line = line;
+        e.status = status;
+        e.error = error;
+        return e;
+    }
+
+    public static ImportEvent progress(String event, long lines, long created, long updated, long failed) {
+        ImportEvent e = new ImportEvent();
+        e.event = event;
+        e.lines = lines;
+        e.created = created;
+        e.updated = updated;
+        e.failed = failed;
+        return e;
+    }
+}
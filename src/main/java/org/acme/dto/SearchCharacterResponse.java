@@ -6,10 +6,11 @@ import java.util.List;
 
 public class SearchCharacterResponse {
     public List<CharacterRepresentation> characters;
-    public long totalCharacters;
-    public int totalPages;
+    public Long totalCharacters;
+    public Integer totalPages;
     public boolean hasMore;
     public String nextPage;
+    public String nextCursor;
 
     public SearchCharacterResponse() {}
 }
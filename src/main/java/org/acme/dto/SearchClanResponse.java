@@ -7,10 +7,11 @@ import java.util.List;
 
 public class SearchClanResponse {
     public List<ClanRepresentation> clans = new ArrayList<>();
-    public long totalClans;
-    public int totalPages;
+    public Long totalClans;
+    public Integer totalPages;
     public boolean hasMore;
     public String nextPage;
+    public String nextCursor;
 
     public SearchClanResponse() {}
 }
@@ -6,10 +6,11 @@ import java.util.List;
 
 public class SearchDomainExpansionResponse {
     public List <DomainExpansionRepresentation> domainExpansions;
-    public long totalDomainExpansions;
-    public int totalPages;
+    public Long totalDomainExpansions;
+    public Integer totalPages;
     public boolean hasMore;
     public String nextPage;
+    public String nextCursor;
 
     public SearchDomainExpansionResponse() {}
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package org.acme.dto;
+
+import org.acme.representation.SearchHitRepresentation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchResultsResponse {
+    public List<SearchHitRepresentation> results = new ArrayList<>();
+    public int totalMatches;
+
+    public SearchResultsResponse() {}
+}
@@ -6,10 +6,11 @@ import java.util.List;
 
 public class SearchTechniqueResponse {
     public List<TechniqueRepresentation> techniques;
-    public long totalTechniques;
-    public int totalPages;
+    public Long totalTechniques;
+    public Integer totalPages;
     public boolean hasMore;
     public String nextPage;
+    public String nextCursor;
 
     public SearchTechniqueResponse() {}
 }
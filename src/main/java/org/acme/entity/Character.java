@@ -1,22 +1,36 @@
 package org.acme.entity;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.acme.search.TextNormalizer;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "sorcerer")
+@Table(name = "sorcerer", indexes = @Index(name = "idx_sorcerer_name_normalized", columnList = "name_normalized"))
+@NamedEntityGraph(name = Character.SUMMARY_GRAPH, attributeNodes = {
+        @NamedAttributeNode("clan"),
+        @NamedAttributeNode("domainExpansion")
+})
 public class Character extends PanacheEntity {
 
+    // grafo usado nas listagens: clã e expansão vêm no mesmo select da página
+    public static final String SUMMARY_GRAPH = "Character.summary";
+
     @NotBlank
     @Size(max = 150)
     public String name;
 
+    // nome normalizado (minúsculo, sem acentos) para buscas e comparações indexadas
+    @Column(name = "name_normalized", length = 150)
+    public String normalizedName;
+
     @NotNull
     @Enumerated(EnumType.STRING)
     public Rank rank;
@@ -26,6 +40,7 @@ public class Character extends PanacheEntity {
     public Clan clan;
 
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(name = "character_technique",
             joinColumns = @JoinColumn(name = "character_id"),
             inverseJoinColumns = @JoinColumn(name = "technique_id"))
@@ -43,4 +58,19 @@ public class Character extends PanacheEntity {
         if (techniques != null) this.techniques = techniques;
         this.domainExpansion = domainExpansion;
     }
-}
\ No newline at end of file
+
+    /**
+     * Aplica o grafo {@link #SUMMARY_GRAPH} a uma consulta de personagens, para que
+     * montar {@code CharacterRepresentation} de uma página inteira não gere N+1 selects.
+     * As técnicas são carregadas em lote via {@code @BatchSize}.
+     */
+    public static PanacheQuery<Character> withSummaryGraph(PanacheQuery<Character> query) {
+        return query.withHint("jakarta.persistence.fetchgraph", getEntityManager().getEntityGraph(SUMMARY_GRAPH));
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        normalizedName = TextNormalizer.normalize(name);
+    }
+}
@@ -1,18 +1,19 @@
 package org.acme.entity;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.OneToMany;
-import jakarta.persistence.Table;
+import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.acme.search.TextNormalizer;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Entity
-@Table(name = "clan")
+@Table(name = "clan", indexes = @Index(name = "idx_clan_name_normalized", columnList = "name_normalized"))
 public class Clan extends PanacheEntity {
 
     @NotBlank
@@ -20,6 +21,10 @@ public class Clan extends PanacheEntity {
     @Column(unique = true, nullable = false)
     public String name;
 
+    // nome normalizado (minúsculo, sem acentos) para buscas e comparações indexadas
+    @Column(name = "name_normalized", length = 150)
+    public String normalizedName;
+
     @Column(nullable = false, length = 1000)
     @Size(max = 1000)
     public String description;
@@ -33,4 +38,30 @@ public class Clan extends PanacheEntity {
         this.name = name;
         this.description = description;
     }
+
+    /**
+     * IDs dos membros de cada clã informado, buscados numa única consulta agrupada
+     * (sem inicializar a coleção {@link #members}). Clãs sem membros não aparecem no mapa.
+     */
+    public static Map<Long, List<Long>> memberIdsByClan(Collection<Long> clanIds) {
+        Map<Long, List<Long>> result = new HashMap<>();
+        if (clanIds.isEmpty()) return result;
+
+        getEntityManager()
+                .createQuery("select c.clan.id, c.id from Character c where c.clan.id in ?1 order by c.id", Object[].class)
+                .setParameter(1, clanIds)
+                .getResultList()
+                .forEach(row -> result.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]));
+        return result;
+    }
+
+    public static List<Long> memberIds(Long clanId) {
+        return memberIdsByClan(List.of(clanId)).getOrDefault(clanId, new ArrayList<>());
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        normalizedName = TextNormalizer.normalize(name);
+    }
 }
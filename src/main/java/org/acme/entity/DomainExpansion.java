@@ -4,9 +4,10 @@ import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.acme.search.TextNormalizer;
 
 @Entity
-@Table(name = "domain_expansion")
+@Table(name = "domain_expansion", indexes = @Index(name = "idx_domain_expansion_name_normalized", columnList = "name_normalized"))
 public class DomainExpansion extends PanacheEntity {
 
     @NotBlank
@@ -14,6 +15,10 @@ public class DomainExpansion extends PanacheEntity {
     @Size(max = 150)
     public String name;
 
+    // nome normalizado (minúsculo, sem acentos) para buscas e comparações indexadas
+    @Column(name = "name_normalized", length = 150)
+    public String normalizedName;
+
     @Column(nullable = false, length = 2000)
     @Size(max = 2000)
     public String effect;
@@ -29,4 +34,10 @@ public class DomainExpansion extends PanacheEntity {
         this.effect = effect;
         this.owner = owner;
     }
-}
\ No newline at end of file
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        normalizedName = TextNormalizer.normalize(name);
+    }
+}
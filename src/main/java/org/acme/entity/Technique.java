@@ -1,18 +1,19 @@
 package org.acme.entity;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.ManyToMany;
-import jakarta.persistence.Table;
+import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.acme.search.TextNormalizer;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Entity
-@Table(name = "technique")
+@Table(name = "technique", indexes = @Index(name = "idx_technique_name_normalized", columnList = "name_normalized"))
 public class Technique extends PanacheEntity {
 
     @NotBlank
@@ -20,6 +21,10 @@ public class Technique extends PanacheEntity {
     @Size(max = 150)
     public String name;
 
+    // nome normalizado (minúsculo, sem acentos) para buscas e comparações indexadas
+    @Column(name = "name_normalized", length = 150)
+    public String normalizedName;
+
     @Column(nullable = false, length = 1000)
     @Size(max = 1000)
     public String description;
@@ -32,4 +37,30 @@ public class Technique extends PanacheEntity {
         this.name = name;
         this.description = description;
     }
+
+    /**
+     * IDs dos usuários de cada técnica informada, buscados numa única consulta agrupada
+     * (sem inicializar a coleção {@link #users}). Técnicas sem usuários não aparecem no mapa.
+     */
+    public static Map<Long, List<Long>> userIdsByTechnique(Collection<Long> techniqueIds) {
+        Map<Long, List<Long>> result = new HashMap<>();
+        if (techniqueIds.isEmpty()) return result;
+
+        getEntityManager()
+                .createQuery("select t.id, c.id from Character c join c.techniques t where t.id in ?1 order by c.id", Object[].class)
+                .setParameter(1, techniqueIds)
+                .getResultList()
+                .forEach(row -> result.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]));
+        return result;
+    }
+
+    public static List<Long> userIds(Long techniqueId) {
+        return userIdsByTechnique(List.of(techniqueId)).getOrDefault(techniqueId, new ArrayList<>());
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        normalizedName = TextNormalizer.normalize(name);
+    }
 }
@@ -0,0 +1,80 @@
+package org.acme.filter;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Set;
+
+/**
+ * Limite do corpo das requisições por rota. {@code quarkus.http.limits.max-body-size} é o maior limite
+ * aceito (o das importações em NDJSON); as demais rotas ficam em {@code kokusen.http.max-body-size}.
+ * Roda logo depois da checagem do Quarkus: recusa com 413 pelo {@code Content-Length} e, para corpos
+ * chunked, troca o limite que o stream de entrada do RESTEasy aplica durante a leitura.
+ * <p>
+ * Esse segundo caso depende de um detalhe interno: a chave {@code io.quarkus.max-request-size} do
+ * {@link RoutingContext}, gravada pela checagem do Quarkus e lida pelo {@code VertxInputStream} do
+ * RESTEasy Reactive. Não é API pública; se mudar numa atualização, corpos chunked passam a ter só o
+ * limite global, e o caso chunked do {@code BodySizeLimitTest} falha.
+ */
+@ApplicationScoped
+public class BodySizeLimit {
+
+    // chave interna do Quarkus (ver o Javadoc da classe); a checagem do Quarkus (ordem -2) grava o limite global nela
+    private static final String MAX_REQUEST_SIZE = "io.quarkus.max-request-size";
+
+    // as rotas POST /{recurso}/import, as únicas que recebem o limite das importações
+    private static final Set<String> IMPORT_PATHS = Set.of(
+            "/characters/import", "/clans/import", "/techniques/import", "/domain-expansions/import");
+
+    @ConfigProperty(name = "kokusen.http.max-body-size", defaultValue = "10M")
+    MemorySize maxBodySize;
+
+    void register(@Observes Router router) {
+        long limit = maxBodySize.asLongValue();
+        String error = new JsonObject().put("error", "Request body exceeds " + limit + " bytes").encode();
+        router.route().order(-1).handler(rc -> limit(rc, limit, error));
+    }
+
+    private static void limit(RoutingContext rc, long limit, String error) {
+        HttpServerRequest request = rc.request();
+        if (request.method() == HttpMethod.POST && isImport(rc.normalizedPath())) {
+            rc.next();
+            return;
+        }
+
+        String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength != null && parse(contentLength) > limit) {
+            rc.response()
+                    .setStatusCode(413)
+                    .putHeader(HttpHeaders.CONNECTION, "close")
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                    .end(error);
+            return;
+        }
+        rc.put(MAX_REQUEST_SIZE, limit);
+        rc.next();
+    }
+
+    private static boolean isImport(String path) {
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return IMPORT_PATHS.contains(path);
+    }
+
+    private static long parse(String contentLength) {
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
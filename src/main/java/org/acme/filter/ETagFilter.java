@@ -0,0 +1,59 @@
+package org.acme.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Adiciona {@code ETag} às respostas 200 dos GETs e responde 304 quando o {@code If-None-Match}
+ * casa. O corpo é serializado aqui uma única vez e reaproveitado como entidade da resposta;
+ * quem já tem o ETag (o cache de representações) o informa no header e o hash é dispensado.
+ */
+@Provider
+@Priority(Priorities.HEADER_DECORATOR)
+public class ETagFilter implements ContainerResponseFilter {
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response)
+            throws JsonProcessingException {
+
+        if (!"GET".equalsIgnoreCase(request.getMethod())
+                || response.getStatus() != Response.Status.OK.getStatusCode()
+                || !response.hasEntity()
+                || !isJson(response.getMediaType())) {
+            return;
+        }
+
+        Object etag = response.getHeaders().getFirst(HttpHeaders.ETAG);
+        if (etag == null) {
+            byte[] body = response.getEntity() instanceof byte[] bytes
+                    ? bytes
+                    : mapper.writeValueAsBytes(response.getEntity());
+            response.setEntity(body, response.getEntityAnnotations(), MediaType.APPLICATION_JSON_TYPE);
+            etag = ETags.of(body);
+            response.getHeaders().putSingle(HttpHeaders.ETAG, etag);
+        }
+
+        if (ETags.matches(request.getHeaderString(HttpHeaders.IF_NONE_MATCH), etag.toString())) {
+            response.setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+            response.setEntity(null);
+        }
+    }
+
+    // sem Content-Type explícito o recurso cai no @Produces, que aqui é sempre JSON
+    private static boolean isJson(MediaType type) {
+        return type == null || MediaType.APPLICATION_JSON_TYPE.isCompatible(type);
+    }
+}
@@ -0,0 +1,52 @@
+package org.acme.filter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * ETags fortes calculados sobre os bytes do corpo da resposta.
+ */
+public final class ETags {
+
+    private static final int HASH_BYTES = 16;
+
+    // um digest por thread: getInstance a cada resposta percorre os providers de segurança
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private ETags() {}
+
+    /**
+     * Valor do header {@code ETag} (com aspas) para o corpo serializado.
+     */
+    public static String of(byte[] body) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(body);
+        return "\"" + HexFormat.of().formatHex(hash, 0, HASH_BYTES) + "\"";
+    }
+
+    /**
+     * Comparação fraca do RFC 9110 contra o header {@code If-None-Match} (lista ou {@code *}).
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+
+        String opaque = strip(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || strip(tag).equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    private static String strip(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
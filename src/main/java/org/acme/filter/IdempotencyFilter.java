@@ -1,43 +1,84 @@
 package org.acme.filter;
 
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.ext.web.RoutingContext;
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Priorities;
 import jakarta.ws.rs.container.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.Provider;
 import org.acme.idempotency.IdempotencyService;
+import org.acme.idempotency.RequestBody;
+import org.acme.idempotency.SkipIdempotency;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-
+import java.util.Map;
+
+/**
+ * Idempotência dos POSTs. Com o header {@code Idempotency-Key} a chave é a do cliente, escopada
+ * por método e caminho, e o reenvio devolve a resposta original; sem ele, vale o hash do corpo e o
+ * reenvio recebe 409. Em ambos os casos duplicatas concorrentes esperam a primeira terminar.
+ * Endpoints marcados com {@link SkipIdempotency} passam direto, com o corpo intacto.
+ */
 @Provider
 @Priority(Priorities.USER)
 public class IdempotencyFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
     @Inject
     IdempotencyService idempotencyService;
 
-    private static final String KEY_PROPERTY = "IDEMPOTENCY_KEY_GENERATED";
+    @Inject
+    RoutingContext routingContext;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    // POSTs maiores que isso recebem 413 antes de chegar ao recurso
+    @ConfigProperty(name = "kokusen.idempotency.max-body-size", defaultValue = "1M")
+    MemorySize maxBodySize;
+
+    private static final String CLAIM_PROPERTY = "IDEMPOTENCY_CLAIM";
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
 
-        if (!"POST".equalsIgnoreCase(requestContext.getMethod())) {
+        if (!"POST".equalsIgnoreCase(requestContext.getMethod()) || skipped()) {
             return;
         }
 
-        InputStream in = requestContext.getEntityStream();
-        byte[] bodyBytes = in.readAllBytes();
-        String bodyString = new String(bodyBytes);
+        String clientKey = requestContext.getHeaderString(IDEMPOTENCY_KEY_HEADER);
+        if (clientKey != null && (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH)) {
+            requestContext.abortWith(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters"))
+                    .build());
+            return;
+        }
 
-        requestContext.setEntityStream(new ByteArrayInputStream(bodyBytes));
+        RequestBody body = RequestBody.read(requestContext.getEntityStream(), requestContext.getLength(),
+                (int) Math.min(maxBodySize.asLongValue(), Integer.MAX_VALUE));
+        requestContext.setEntityStream(new ByteArrayInputStream(body.bytes()));
 
-        String key = idempotencyService.generateKeyFromBody(bodyString);
+        String fingerprint = body.fingerprint();
+        String key = clientKey == null
+                ? fingerprint
+                : requestContext.getMethod() + " " + requestContext.getUriInfo().getPath() + " " + clientKey;
 
-        idempotencyService.checkOrThrow(key);
+        IdempotencyService.Claim claim = idempotencyService.claim(key, fingerprint, clientKey != null,
+                acceptsGzip(requestContext));
+        requestContext.setProperty(CLAIM_PROPERTY, claim);
 
-        requestContext.setProperty(KEY_PROPERTY, key);
+        // garante a liberação mesmo se a requisição terminar numa exceção que não passa pelo filtro de resposta
+        routingContext.addEndHandler(ignored -> idempotencyService.release(claim));
     }
 
     @Override
@@ -48,14 +89,25 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
             return;
         }
 
-        Object keyObj = requestContext.getProperty(KEY_PROPERTY);
-        if (keyObj == null) return;
-
-        String key = keyObj.toString();
+        if (!(requestContext.getProperty(CLAIM_PROPERTY) instanceof IdempotencyService.Claim claim)) return;
 
         Object responseEntity = responseContext.getEntity();
         if (responseEntity != null) {
-            idempotencyService.saveResponse(key, responseEntity);
+            byte[] body = idempotencyService.saveResponse(claim, responseContext.getStatus(),
+                    responseContext.getHeaders(), responseEntity);
+            responseContext.setEntity(body, responseContext.getEntityAnnotations(), MediaType.APPLICATION_JSON_TYPE);
+        } else {
+            idempotencyService.release(claim);
         }
     }
-}
\ No newline at end of file
+
+    private boolean skipped() {
+        return resourceInfo.getResourceMethod().isAnnotationPresent(SkipIdempotency.class)
+                || resourceInfo.getResourceClass().isAnnotationPresent(SkipIdempotency.class);
+    }
+
+    private static boolean acceptsGzip(ContainerRequestContext requestContext) {
+        String accepted = requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+        return accepted != null && accepted.toLowerCase().contains("gzip");
+    }
+}
@@ -1,67 +1,92 @@
 package org.acme.filter;
 
 import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
 import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
 import jakarta.ws.rs.ext.Provider;
 import jakarta.ws.rs.Priorities;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Context;
 
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import io.vertx.core.http.HttpServerRequest;
+import org.acme.ratelimit.RateLimitLog;
+import org.acme.ratelimit.RateLimitMetrics;
+import org.acme.ratelimit.RateLimitPolicy;
+import org.acme.ratelimit.RateLimitService;
+import org.acme.ratelimit.RateLimiter;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveContainerRequestContext;
 
 import java.io.IOException;
-import java.time.Instant;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Provider
 @Priority(Priorities.AUTHENTICATION)
 public class RateLimitFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
-    private static final int LIMIT = 50;
-    private static final int WINDOW_SECONDS = 10;
+    @Inject
+    RateLimitService rateLimitService;
 
-    private static final Map<String, RequestInfo> requestCounts = new ConcurrentHashMap<>();
+    @Inject
+    RateLimitLog rateLimitLog;
+
+    @Inject
+    RateLimitMetrics rateLimitMetrics;
 
     @Context
     HttpServerRequest vertxRequest;
-    @Override
-    public void filter(ContainerRequestContext requestContext) throws IOException {
-
-        String ip = requestContext.getHeaderString("X-Forwarded-For");
-
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
 
-        if (ip == null || ip.isBlank()) {
-            ip = vertxRequest.remoteAddress().host();
-        }
-
-        long now = Instant.now().getEpochSecond();
-        RequestInfo info = requestCounts.computeIfAbsent(ip, k -> new RequestInfo());
+    @Context
+    ResourceInfo resourceInfo;
 
-        if (now - info.timestamp > WINDOW_SECONDS) {
-            info.timestamp = now;
-            info.count = 0;
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        if (!rateLimitService.enabled()) return;
+
+        String ip = rateLimitService.clientIp(vertxRequest.remoteAddress().host(),
+                requestContext.getHeaderString("X-Forwarded-For"));
+
+        RateLimitPolicy policy = rateLimitService.policy(resourceInfo, requestContext.getMethod(),
+                rateLimitService.clientClass(ip));
+
+        if (rateLimitService.blocking() && io.vertx.core.Context.isOnEventLoopThread()) {
+            // endpoint não bloqueante (GET /{id}) com os baldes no banco: a ida ao banco sai do event loop
+            ResteasyReactiveContainerRequestContext suspended = (ResteasyReactiveContainerRequestContext) requestContext;
+            String client = ip;
+            suspended.suspend();
+            Infrastructure.getDefaultWorkerPool().execute(() -> {
+                try {
+                    apply(requestContext, client, policy, rateLimitService.acquire(client, policy));
+                    suspended.resume();
+                } catch (Throwable t) {
+                    suspended.resume(t);
+                }
+            });
+            return;
         }
 
-        info.count++;
-        requestContext.setProperty("rate-info", info);
+        apply(requestContext, ip, policy, rateLimitService.acquire(ip, policy));
+    }
 
-        // LOG
-        System.out.println("[RATE LIMIT] IP: " + ip + " | Count: " + info.count + "/" + LIMIT);
+    private void apply(ContainerRequestContext requestContext, String ip, RateLimitPolicy policy,
+                       RateLimiter.Decision decision) {
+        requestContext.setProperty("rate-info", decision);
+        requestContext.setProperty("rate-policy", policy);
+        rateLimitMetrics.record(policy, decision.allowed());
 
-        if (info.count > LIMIT) {
-            System.out.println("[RATE LIMIT] BLOQUEADO IP: " + ip);
+        if (!decision.allowed()) {
+            rateLimitLog.blocked(ip, policy.name());
 
             Response response = Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .header("Retry-After", retryAfterSeconds(decision))
                     .entity(Map.of(
                             "error", "Too many requests — please try again later.",
-                            "X-RateLimit-Limit", LIMIT,
+                            "X-RateLimit-Limit", policy.rate().burst(),
                             "X-RateLimit-Remaining", 0
                     ))
                     .build();
@@ -73,14 +98,14 @@ public class RateLimitFilter implements ContainerRequestFilter, ContainerRespons
     @Override
     public void filter(ContainerRequestContext req, ContainerResponseContext res) throws IOException {
         Object infoObj = req.getProperty("rate-info");
-        if (infoObj instanceof RequestInfo info) {
-            res.getHeaders().add("X-RateLimit-Limit", String.valueOf(LIMIT));
-            res.getHeaders().add("X-RateLimit-Remaining", String.valueOf(Math.max(0, LIMIT - info.count)));
+        if (infoObj instanceof RateLimiter.Decision decision
+                && req.getProperty("rate-policy") instanceof RateLimitPolicy policy) {
+            res.getHeaders().add("X-RateLimit-Limit", String.valueOf(policy.rate().burst()));
+            res.getHeaders().add("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
         }
     }
 
-    private static class RequestInfo {
-        long timestamp = Instant.now().getEpochSecond();
-        int count = 0;
+    private static long retryAfterSeconds(RateLimiter.Decision decision) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1));
     }
 }
@@ -0,0 +1,72 @@
+package org.acme.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.ClientProxy;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import org.acme.metrics.MetricsConfiguration;
+import org.acme.metrics.RequestStatements;
+import org.acme.resource.Routes;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registra quantos statements SQL cada requisição preparou, por rota e método HTTP. O valor é
+ * gravado quando a resposta termina, então inclui o que as respostas em streaming (exportação,
+ * importação) executam depois do método de recurso. Roda antes do rate limit para contar também
+ * as requisições recusadas.
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 100)
+public class StatementMetricsFilter implements ContainerRequestFilter {
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    RequestStatements statements;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Context
+    RoutingContext routingContext;
+
+    // um medidor por método de recurso, resolvido na primeira requisição
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null) return;
+
+        DistributionSummary summary = summaries.get(method);
+        if (summary == null) {
+            Class<?> resourceClass = resourceInfo.getResourceClass();
+            // verbo da anotação: um HEAD servido pelo @GET não pode rotular o medidor da rota
+            String httpMethod = Routes.httpMethod(method, requestContext.getMethod());
+            summary = summaries.computeIfAbsent(method, m -> DistributionSummary
+                    .builder(MetricsConfiguration.REQUEST_STATEMENTS)
+                    .description("Statements SQL preparados por requisição")
+                    .baseUnit("statements")
+                    .tag("uri", Routes.template(resourceClass, m))
+                    .tag("method", httpMethod)
+                    .register(registry));
+        }
+
+        // a instância da requisição, não o proxy: o end handler roda depois que o contexto termina
+        RequestStatements current = ClientProxy.unwrap(statements);
+        DistributionSummary recorded = summary;
+        routingContext.addEndHandler(done -> recorded.record(current.count()));
+    }
+}
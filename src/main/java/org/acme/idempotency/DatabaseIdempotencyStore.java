@@ -0,0 +1,128 @@
+package org.acme.idempotency;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.PersistenceException;
+import org.acme.cache.BoundedCache;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Respostas numa tabela do datasource padrão ({@link IdempotencyRecord}): sobrevivem a restarts e
+ * valem para todas as réplicas. A chave é reservada na mesma transação das escritas do recurso, então
+ * um rollback a libera e duas réplicas não executam a mesma chave (a segunda esbarra na chave primária).
+ * A reserva vale só por {@code pendingTtl}: se a resposta não for gravada (falha no {@link #save}, réplica
+ * que cai entre o commit e a resposta), a chave volta a ficar livre sem esperar o TTL das respostas.
+ * Linhas expiradas são apagadas pela varredura em lotes de {@code batchSize}; a mesma varredura conta
+ * as linhas e os bytes guardados, e {@link #stats} devolve essa contagem sem consultar o banco (a coleta
+ * de métricas não paga um {@code count(*)} a cada scrape).
+ */
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger LOG = Logger.getLogger(DatabaseIdempotencyStore.class);
+
+    private final long ttlMillis;
+    private final long pendingTtlMillis;
+    private final int batchSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder swept = new LongAdder();
+
+    // entradas e bytes da última varredura
+    private record Usage(int size, long bytes) {
+    }
+
+    private volatile Usage usage = new Usage(0, 0);
+
+    public DatabaseIdempotencyStore(Duration ttl, Duration pendingTtl, int batchSize) {
+        this.ttlMillis = ttl.toMillis();
+        this.pendingTtlMillis = pendingTtl.toMillis();
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public StoredResponse get(String key) {
+        long now = System.currentTimeMillis();
+        StoredResponse stored = QuarkusTransaction.requiringNew().call(() -> {
+            IdempotencyRecord record = IdempotencyRecord.findById(key);
+            return record == null || record.expiresAt <= now ? null : record.toStoredResponse();
+        });
+        (stored == null ? misses : hits).increment();
+        return stored;
+    }
+
+    @Override
+    public void reserve(String key, String fingerprint) {
+        long now = System.currentTimeMillis();
+        // uma linha vencida que a varredura ainda não apagou não deve bloquear a chave
+        IdempotencyRecord.delete("key = ?1 and expiresAt <= ?2", key, now);
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.key = key;
+        record.fingerprint = fingerprint;
+        // o TTL das respostas só vale a partir do save()
+        record.expiresAt = now + pendingTtlMillis;
+        try {
+            record.persistAndFlush();
+        } catch (PersistenceException e) {
+            throw IdempotencyService.inProgress();
+        }
+    }
+
+    @Override
+    public void save(String key, StoredResponse response) {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                IdempotencyRecord record = IdempotencyRecord.findById(key);
+                if (record == null) {
+                    record = new IdempotencyRecord();
+                    record.key = key;
+                }
+                record.fingerprint = response.fingerprint();
+                record.status = response.status();
+                record.headers = String.join("\n", response.headers());
+                record.body = response.body();
+                record.gzipped = response.gzipped();
+                record.expiresAt = System.currentTimeMillis() + ttlMillis;
+                record.persist();
+            });
+        } catch (RuntimeException e) {
+            // a resposta já foi produzida; sem o registro, só o reenvio deixa de ser deduplicado
+            LOG.warnf(e, "Could not store idempotent response for key %s", key);
+        }
+    }
+
+    @Override
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        int deleted;
+        do {
+            deleted = QuarkusTransaction.requiringNew().call(() -> {
+                List<String> keys = IdempotencyRecord.getEntityManager()
+                        .createQuery("select r.key from IdempotencyRecord r where r.expiresAt <= :now", String.class)
+                        .setParameter("now", now)
+                        .setMaxResults(batchSize)
+                        .getResultList();
+                return keys.isEmpty() ? 0 : (int) IdempotencyRecord.delete("key in ?1", keys);
+            });
+            swept.add(deleted);
+        } while (deleted == batchSize);
+
+        Object[] row = QuarkusTransaction.requiringNew().call(() -> (Object[]) IdempotencyRecord.getEntityManager()
+                .createNativeQuery("select count(*), coalesce(sum(octet_length(body)), 0) from idempotency_record")
+                .getSingleResult());
+        usage = new Usage(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+    }
+
+    /**
+     * Hits, misses e linhas varridas são contados na hora; entradas e bytes são os da última varredura.
+     */
+    @Override
+    public BoundedCache.Stats stats() {
+        Usage current = usage;
+        return new BoundedCache.Stats(hits.sum(), misses.sum(), swept.sum(), current.size(), current.bytes());
+    }
+}
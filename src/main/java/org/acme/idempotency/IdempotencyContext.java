@@ -0,0 +1,12 @@
+package org.acme.idempotency;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Reserva da requisição corrente, para o recurso gravá-la na própria transação.
+ */
+@RequestScoped
+public class IdempotencyContext {
+
+    IdempotencyService.Claim claim;
+}
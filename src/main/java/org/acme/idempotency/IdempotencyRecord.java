@@ -0,0 +1,43 @@
+package org.acme.idempotency;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+/**
+ * Linha do {@link DatabaseIdempotencyStore}. É inserida pendente ({@code status = 0}) na transação
+ * do recurso e completada com a resposta depois do commit.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "idempotency_key", length = 400)
+    public String key;
+
+    @Column(nullable = false, length = 64)
+    public String fingerprint;
+
+    public int status;
+
+    // pares nome/valor separados por quebra de linha
+    @Column(length = 2000)
+    public String headers;
+
+    @Lob
+    public byte[] body;
+
+    public boolean gzipped;
+
+    // epoch em milissegundos
+    @Column(name = "expires_at", nullable = false)
+    public long expiresAt;
+
+    StoredResponse toStoredResponse() {
+        if (status == 0) {
+            return StoredResponse.pending(fingerprint);
+        }
+        String[] pairs = headers == null || headers.isEmpty() ? new String[0] : headers.split("\n");
+        return new StoredResponse(status, pairs, body, gzipped, fingerprint);
+    }
+}
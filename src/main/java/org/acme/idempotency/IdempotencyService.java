@@ -1,47 +1,212 @@
 package org.acme.idempotency;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @ApplicationScoped
 public class IdempotencyService {
 
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // headers da resposta original que voltam no replay
+    private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION);
+
     @Inject
     IdempotencyStore store;
 
-    public String generateKeyFromBody(String body) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(body.getBytes(StandardCharsets.UTF_8));
+    @Inject
+    ObjectMapper mapper;
+
+    @Inject
+    IdempotencyContext context;
+
+    // corpos maiores que isso são guardados com gzip; -1 desliga a compressão
+    @ConfigProperty(name = "kokusen.idempotency.compress-above", defaultValue = "1024")
+    int compressAbove;
+
+    // quanto um reenvio espera a requisição original terminar; 0 responde 409 na hora
+    @ConfigProperty(name = "kokusen.idempotency.in-flight-wait", defaultValue = "10s")
+    Duration inFlightWait;
+
+    // chaves sendo processadas agora: o primeiro a reservar executa, os demais esperam o resultado
+    private final Map<String, Claim> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva de uma chave por uma requisição. {@code replayOriginal} diz se o reenvio devolve o
+     * status original ({@code Idempotency-Key}) ou o 409 do modo por hash do corpo.
+     */
+    public record Claim(String key, String fingerprint, boolean replayOriginal,
+                        CompletableFuture<StoredResponse> result) {
+    }
 
-            StringBuilder hex = new StringBuilder();
-            for (byte b : hash) {
-                hex.append(String.format("%02x", b));
+    /**
+     * Reserva a chave para esta requisição. Se ela já foi processada, lança o replay da resposta
+     * guardada; se outra requisição com a mesma chave está em andamento, espera o resultado dela
+     * (até {@code in-flight-wait}) em vez de executar a transação de novo.
+     */
+    public Claim claim(String key, String fingerprint, boolean replayOriginal, boolean acceptsGzip) {
+        long deadline = System.nanoTime() + inFlightWait.toNanos();
+        while (true) {
+            StoredResponse previous = store.get(key);
+            if (previous != null) {
+                throw replay(previous, fingerprint, replayOriginal, acceptsGzip);
             }
-            return hex.toString();
 
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Unable to generate idempotency hash", e);
+            Claim mine = new Claim(key, fingerprint, replayOriginal, new CompletableFuture<>());
+            Claim running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                // a original pode ter terminado entre o get e a reserva
+                previous = store.get(key);
+                if (previous != null) {
+                    release(mine);
+                    throw replay(previous, fingerprint, replayOriginal, acceptsGzip);
+                }
+                context.claim = mine;
+                return mine;
+            }
+
+            if (!running.fingerprint().equals(fingerprint)) {
+                throw reusedKey();
+            }
+            StoredResponse result = await(running, deadline);
+            if (result != null) {
+                throw replay(result, fingerprint, replayOriginal, acceptsGzip);
+            }
+            // a original falhou sem resposta guardável: tenta reservar de novo
         }
     }
 
-    public void checkOrThrow(String key) {
-        if (store.contains(key)) {
-            throw new WebApplicationException(
-                    Response.status(Response.Status.CONFLICT)
-                            .entity(store.get(key))
-                            .build()
-            );
+    /**
+     * Grava a reserva da requisição corrente na transação do recurso (no store em banco), para que
+     * ela seja confirmada junto com as escritas. Chamado no início dos endpoints de criação.
+     */
+    public void reserve() {
+        Claim claim = context.claim;
+        if (claim != null) {
+            store.reserve(claim.key(), claim.fingerprint());
         }
     }
 
-    public void saveResponse(String key, Object response) {
-        store.save(key, response);
+    @Scheduled(every = "${kokusen.idempotency.sweep-interval:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sweep() {
+        store.sweep();
+    }
+
+    /**
+     * Serializa a resposta uma única vez, guarda e entrega aos reenvios que estavam esperando;
+     * devolve os bytes para o filtro usar como corpo. Erros 5xx não são guardados, então quem
+     * esperava executa de novo.
+     */
+    public byte[] saveResponse(Claim claim, int status, MultivaluedMap<String, Object> headers, Object response) {
+        byte[] body;
+        try {
+            body = response instanceof byte[] bytes ? bytes : mapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            release(claim);
+            throw new IllegalStateException("Unable to serialize idempotent response", e);
+        }
+
+        if (status >= 500) {
+            release(claim);
+            return body;
+        }
+
+        List<String> replayed = new ArrayList<>();
+        for (String name : REPLAYED_HEADERS) {
+            Object value = headers.getFirst(name);
+            if (value != null) {
+                replayed.add(name);
+                replayed.add(value.toString());
+            }
+        }
+        if (!headers.containsKey(HttpHeaders.CONTENT_TYPE)) {
+            replayed.add(HttpHeaders.CONTENT_TYPE);
+            replayed.add(MediaType.APPLICATION_JSON);
+        }
+
+        StoredResponse stored = StoredResponse.of(status, replayed.toArray(String[]::new), body,
+                claim.fingerprint(), compressAbove);
+        store.save(claim.key(), stored);
+        inFlight.remove(claim.key(), claim);
+        claim.result().complete(stored);
+        return body;
+    }
+
+    /**
+     * Libera a reserva sem resposta (erro, exceção não mapeada); não faz nada se ela já foi concluída.
+     */
+    public void release(Claim claim) {
+        inFlight.remove(claim.key(), claim);
+        claim.result().complete(null);
+    }
+
+    private StoredResponse await(Claim running, long deadline) {
+        try {
+            return running.result().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight request", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    static WebApplicationException inProgress() {
+        return new WebApplicationException(Response.status(Response.Status.CONFLICT)
+                .entity(Map.of("error", "A request with the same idempotency key is still in progress"))
+                .build());
+    }
+
+    private static WebApplicationException reusedKey() {
+        return new WebApplicationException(Response.status(422)
+                .entity(Map.of("error", "Idempotency key was already used with a different request body"))
+                .build());
+    }
+
+    private static WebApplicationException replay(StoredResponse stored, String fingerprint,
+                                                  boolean replayOriginal, boolean acceptsGzip) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            return reusedKey();
+        }
+        if (stored.pending()) {
+            // reservada por outra réplica que ainda não terminou
+            return inProgress();
+        }
+        int status = replayOriginal ? stored.status() : Response.Status.CONFLICT.getStatusCode();
+        Response.ResponseBuilder builder = Response.status(status);
+        String[] headers = stored.headers();
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        if (replayOriginal) {
+            builder.header(REPLAYED_HEADER, "true");
+        }
+        if (stored.gzipped() && acceptsGzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").entity(stored.body());
+        } else {
+            builder.entity(stored.plainBody());
+        }
+        return new WebApplicationException(builder.build());
     }
 }
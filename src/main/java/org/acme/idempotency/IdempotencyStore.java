@@ -1,24 +1,31 @@
 package org.acme.idempotency;
 
-import jakarta.enterprise.context.ApplicationScoped;
+import org.acme.cache.BoundedCache;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+/**
+ * Armazenamento das respostas por chave de idempotência. A implementação é escolhida por
+ * {@code kokusen.idempotency.store} em {@link IdempotencyStoreProducer}.
+ */
+public interface IdempotencyStore {
 
-@ApplicationScoped
-public class IdempotencyStore {
+    /**
+     * Resposta guardada, {@link StoredResponse#pending() pendente} se a chave foi reservada e a
+     * resposta ainda não gravada, ou {@code null}.
+     */
+    StoredResponse get(String key);
 
-    private final Map<String, Object> responses = new ConcurrentHashMap<>();
+    /**
+     * Reserva a chave dentro da transação corrente, para que ela seja confirmada ou desfeita junto
+     * com as escritas do recurso. Lança 409 se outra requisição já reservou a chave.
+     */
+    void reserve(String key, String fingerprint);
 
-    public boolean contains(String key) {
-        return responses.containsKey(key);
-    }
+    void save(String key, StoredResponse response);
 
-    public Object get(String key) {
-        return responses.get(key);
-    }
+    /**
+     * Remove as entradas expiradas; chamada pela varredura agendada.
+     */
+    void sweep();
 
-    public void save(String key, Object response) {
-        responses.put(key, response);
-    }
+    BoundedCache.Stats stats();
 }
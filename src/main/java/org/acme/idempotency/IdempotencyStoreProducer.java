@@ -0,0 +1,48 @@
+package org.acme.idempotency;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+
+/**
+ * Escolhe o {@link IdempotencyStore} por {@code kokusen.idempotency.store}: {@code memory} guarda as
+ * respostas na instância; {@code database} as guarda no datasource padrão, comum às réplicas.
+ */
+@ApplicationScoped
+public class IdempotencyStoreProducer {
+
+    @ConfigProperty(name = "kokusen.idempotency.store", defaultValue = "memory")
+    String store;
+
+    @ConfigProperty(name = "kokusen.idempotency.ttl", defaultValue = "24h")
+    Duration ttl;
+
+    @ConfigProperty(name = "kokusen.idempotency.max-entries", defaultValue = "10000")
+    int maxEntries;
+
+    @ConfigProperty(name = "kokusen.idempotency.max-bytes", defaultValue = "32M")
+    MemorySize maxBytes;
+
+    @ConfigProperty(name = "kokusen.idempotency.database.sweep-batch-size", defaultValue = "500")
+    int sweepBatchSize;
+
+    @ConfigProperty(name = "kokusen.idempotency.in-flight-wait", defaultValue = "10s")
+    Duration inFlightWait;
+
+    @ConfigProperty(name = "quarkus.transaction-manager.default-transaction-timeout", defaultValue = "60s")
+    Duration transactionTimeout;
+
+    @Produces
+    @ApplicationScoped
+    IdempotencyStore idempotencyStore() {
+        return switch (store) {
+            case "memory" -> new MemoryIdempotencyStore(maxEntries, maxBytes.asLongValue(), ttl);
+            // a reserva cobre a transação que a criou e a espera dos reenvios; depois disso a chave é liberada
+            case "database" -> new DatabaseIdempotencyStore(ttl, transactionTimeout.plus(inFlightWait), sweepBatchSize);
+            default -> throw new IllegalStateException("Unknown idempotency store: " + store);
+        };
+    }
+}
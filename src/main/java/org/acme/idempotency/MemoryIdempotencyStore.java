@@ -0,0 +1,45 @@
+package org.acme.idempotency;
+
+import org.acme.cache.BoundedCache;
+
+import java.time.Duration;
+
+/**
+ * Respostas já enviadas mantidas em memória, serializadas ({@link StoredResponse}). Cada
+ * entrada expira no TTL e o total é limitado por número de entradas e por bytes; acima disso
+ * saem as usadas há mais tempo, então a memória fica estável com o volume de escritas.
+ * Não sobrevive a um restart nem é vista pelas outras réplicas.
+ */
+public class MemoryIdempotencyStore implements IdempotencyStore {
+
+    private final BoundedCache<String, StoredResponse> responses;
+
+    public MemoryIdempotencyStore(int maxEntries, long maxBytes, Duration ttl) {
+        responses = new BoundedCache<>(maxEntries, maxBytes, ttl, StoredResponse::weight);
+    }
+
+    @Override
+    public StoredResponse get(String key) {
+        return responses.get(key);
+    }
+
+    @Override
+    public void reserve(String key, String fingerprint) {
+        // as reservas em andamento da instância já ficam em IdempotencyService
+    }
+
+    @Override
+    public void save(String key, StoredResponse response) {
+        responses.put(key, response);
+    }
+
+    @Override
+    public void sweep() {
+        // entradas expiradas saem na leitura ou pelo limite de tamanho
+    }
+
+    @Override
+    public BoundedCache.Stats stats() {
+        return responses.stats();
+    }
+}
@@ -0,0 +1,68 @@
+package org.acme.idempotency;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Corpo de um POST lido uma única vez, com o SHA-256 calculado durante a leitura (sem cópia
+ * para {@code String} nem reencoding) e limitado a um tamanho máximo.
+ */
+public record RequestBody(byte[] bytes, String fingerprint) {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * Lê o corpo inteiro; {@code contentLength} (ou -1) só dimensiona o buffer. Acima de
+     * {@code maxBytes} responde 413 sem ler o resto.
+     */
+    public static RequestBody read(InputStream in, long contentLength, int maxBytes) throws IOException {
+        if (contentLength > maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+
+        byte[] buffer = new byte[contentLength >= 0 ? (int) contentLength : Math.min(INITIAL_CAPACITY, maxBytes)];
+        int size = 0;
+        while (true) {
+            if (size == buffer.length) {
+                if (size == maxBytes) {
+                    // buffer cheio no limite: só aceita se o corpo acabou aqui
+                    if (in.read() != -1) throw tooLarge(maxBytes);
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(Math.max(size * 2L, INITIAL_CAPACITY), maxBytes));
+            }
+            int n = in.read(buffer, size, buffer.length - size);
+            if (n < 0) break;
+            digest.update(buffer, size, n);
+            size += n;
+        }
+
+        byte[] bytes = size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        return new RequestBody(bytes, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static WebApplicationException tooLarge(int maxBytes) {
+        return new WebApplicationException(Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                .entity(Map.of("error", "Request body exceeds " + maxBytes + " bytes"))
+                .build());
+    }
+}
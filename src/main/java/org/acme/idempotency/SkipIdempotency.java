@@ -0,0 +1,16 @@
+package org.acme.idempotency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Tira o endpoint do {@code IdempotencyFilter}: o corpo não é lido inteiro para calcular a chave
+ * e a requisição não é deduplicada. Para POSTs com corpo consumido em streaming (importações),
+ * em que guardar o corpo em memória é justamente o que se quer evitar.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SkipIdempotency {
+}
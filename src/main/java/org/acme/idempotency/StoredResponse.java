@@ -0,0 +1,68 @@
+package org.acme.idempotency;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Resposta guardada para replay: status, headers relevantes (pares nome/valor) e o corpo já
+ * serializado, comprimido com gzip quando vale a pena. {@code fingerprint} é o hash do corpo da
+ * requisição original, para recusar a mesma chave reaproveitada com outro payload.
+ */
+public record StoredResponse(int status, String[] headers, byte[] body, boolean gzipped, String fingerprint) {
+
+    // overhead aproximado do registro, dos arrays e da entrada no cache
+    private static final long OVERHEAD = 128;
+
+    public static StoredResponse of(int status, String[] headers, byte[] body, String fingerprint, int compressAbove) {
+        if (compressAbove >= 0 && body.length > compressAbove) {
+            byte[] compressed = gzip(body);
+            if (compressed.length < body.length) {
+                return new StoredResponse(status, headers, compressed, true, fingerprint);
+            }
+        }
+        return new StoredResponse(status, headers, body, false, fingerprint);
+    }
+
+    /**
+     * Chave reservada por uma requisição que ainda não gravou a resposta.
+     */
+    public static StoredResponse pending(String fingerprint) {
+        return new StoredResponse(0, new String[0], new byte[0], false, fingerprint);
+    }
+
+    public boolean pending() {
+        return status == 0;
+    }
+
+    /**
+     * Corpo descomprimido, para clientes que não aceitam gzip.
+     */
+    public byte[] plainBody() {
+        if (!gzipped) return body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long weight() {
+        long weight = OVERHEAD + body.length + fingerprint.length();
+        for (String h : headers) weight += h.length();
+        return weight;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
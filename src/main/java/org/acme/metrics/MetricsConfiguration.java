@@ -0,0 +1,58 @@
+package org.acme.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Distribuições publicadas pelas métricas de requisição: a latência por rota
+ * ({@code http.server.requests}) e os statements SQL por requisição ({@code kokusen.request.statements})
+ * saem com os buckets do histograma, que o Prometheus agrega entre réplicas, e com os percentis
+ * de {@code kokusen.metrics.percentiles} calculados na instância.
+ */
+@Singleton
+public class MetricsConfiguration {
+
+    public static final String HTTP_REQUESTS = "http.server.requests";
+    public static final String REQUEST_STATEMENTS = "kokusen.request.statements";
+
+    @ConfigProperty(name = "kokusen.metrics.percentiles", defaultValue = "0.5,0.95,0.99")
+    List<Double> percentiles;
+
+    @ConfigProperty(name = "kokusen.metrics.histogram", defaultValue = "true")
+    boolean histogram;
+
+    @Produces
+    @Singleton
+    MeterFilter distributions() {
+        double[] quantiles = percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return switch (id.getName()) {
+                    case HTTP_REQUESTS -> DistributionStatisticConfig.builder()
+                            .percentiles(quantiles)
+                            .percentilesHistogram(histogram)
+                            .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                            .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                            .build()
+                            .merge(config);
+                    case REQUEST_STATEMENTS -> DistributionStatisticConfig.builder()
+                            .percentiles(quantiles)
+                            .percentilesHistogram(histogram)
+                            .minimumExpectedValue(1.0)
+                            .maximumExpectedValue(10_000.0)
+                            .build()
+                            .merge(config);
+                    default -> config;
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package org.acme.metrics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Quantos statements SQL a requisição corrente preparou. Uma requisição usa uma thread de
+ * cada vez, então o contador é um campo simples.
+ */
+@RequestScoped
+public class RequestStatements {
+
+    private int count;
+
+    void increment() {
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+}
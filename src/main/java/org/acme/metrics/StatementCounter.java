@@ -0,0 +1,27 @@
+package org.acme.metrics;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta cada statement preparado pelo Hibernate na requisição em que ele roda. Fora de uma
+ * requisição (subida, tarefas agendadas) o statement não é contado.
+ */
+@ApplicationScoped
+@PersistenceUnitExtension
+public class StatementCounter implements StatementInspector {
+
+    @Inject
+    RequestStatements statements;
+
+    @Override
+    public String inspect(String sql) {
+        if (Arc.container().requestContext().isActive()) {
+            statements.increment();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,101 @@
+package org.acme.pagination;
+
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco da paginação keyset (seek): guarda o valor do campo de ordenação e o id
+ * da última linha entregue, e gera o predicado que continua a partir dela. Diferente de
+ * OFFSET, o custo de uma página não cresce com a profundidade.
+ */
+public final class KeysetCursor {
+
+    private static final String ID = "id";
+
+    private final String sort;
+    private final boolean descending;
+    private final String value;
+    private final long id;
+
+    private KeysetCursor(String sort, boolean descending, String value, long id) {
+        this.sort = sort;
+        this.descending = descending;
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * Decodifica o cursor recebido. Cursor vazio significa primeira página e devolve {@code null}.
+     * Um cursor inválido ou gerado para outra ordenação resulta em 400.
+     */
+    public static KeysetCursor decode(String token, String sort, boolean descending) {
+        if (token == null || token.isBlank()) return null;
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 4);
+            if (parts.length != 4 || !parts[0].equals(sort) || !parts[1].equals(direction(descending))) {
+                throw invalid();
+            }
+            return new KeysetCursor(sort, descending, parts[3], Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    public static String encode(String sort, boolean descending, String value, Long id) {
+        String raw = sort + "\n" + direction(descending) + "\n" + id + "\n" + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ordenação estável exigida pelo seek: o campo pedido e, como desempate, o id.
+     */
+    public static Sort sort(String sort, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.Descending : Sort.Direction.Ascending;
+        Sort sortObj = Sort.by(sort, direction);
+        return ID.equals(sort) ? sortObj : sortObj.and(ID, direction);
+    }
+
+    /**
+     * Predicado JPQL (parâmetros nomeados) que seleciona as linhas depois do cursor.
+     */
+    public String predicate() {
+        String op = descending ? "<" : ">";
+        if (ID.equals(sort)) {
+            return "id " + op + " :cursorId";
+        }
+        return "(" + sort + " " + op + " :cursorValue or (" + sort + " = :cursorValue and id " + op + " :cursorId))";
+    }
+
+    /**
+     * Adiciona os parâmetros do {@link #predicate()}; {@code converter} transforma o valor
+     * textual guardado no tipo do campo de ordenação (ex.: enum).
+     */
+    public Parameters bind(Parameters params, Function<String, Object> converter) {
+        params.and("cursorId", id);
+        if (!ID.equals(sort)) {
+            params.and("cursorValue", converter.apply(value));
+        }
+        return params;
+    }
+
+    private static String direction(boolean descending) {
+        return descending ? "desc" : "asc";
+    }
+
+    private static WebApplicationException invalid() {
+        return new WebApplicationException(
+                Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Map.of("error", "Invalid cursor"))
+                        .build()
+        );
+    }
+}
@@ -0,0 +1,31 @@
+package org.acme.pagination;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Uma página da paginação keyset. {@code size} é o tamanho efetivamente usado (já limitado
+ * pelo máximo configurado) e {@code nextCursor} fica {@code null} na última página.
+ */
+public record KeysetPage<T>(List<T> items, boolean hasMore, String nextCursor,
+                            int size, String sort, boolean descending) {
+
+    /**
+     * Link da próxima página em {@code path}, repetindo a busca {@code q} (codificada) quando houver;
+     * vazio na última página.
+     */
+    public String nextPage(String path, String q) {
+        if (!hasMore) return "";
+
+        StringBuilder link = new StringBuilder(path).append('?');
+        if (q != null) {
+            link.append("q=").append(URLEncoder.encode(q, StandardCharsets.UTF_8)).append('&');
+        }
+        return link.append("cursor=").append(nextCursor)
+                .append("&size=").append(size)
+                .append("&sort=").append(sort)
+                .append("&direction=").append(descending ? "desc" : "asc")
+                .toString();
+    }
+}
@@ -0,0 +1,10 @@
+package org.acme.pagination;
+
+import java.util.List;
+
+/**
+ * Uma página de resultados com OFFSET. {@code total} e {@code totalPages} ficam {@code null}
+ * quando o cliente dispensou a contagem ({@code includeTotal=false}).
+ */
+public record PageResult<T>(List<T> items, Long total, Integer totalPages, boolean hasMore) {
+}
@@ -0,0 +1,165 @@
+package org.acme.pagination;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.acme.search.NameSearch;
+import org.acme.transaction.AfterCommit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Executa a consulta paginada (OFFSET) das listagens e buscas e controla o COUNT:
+ * o total é calculado uma única vez por requisição, fica em cache por um TTL curto
+ * (chaveado pelo filtro normalizado) e pode ser dispensado pelo cliente. Também executa
+ * o modo keyset ({@link #seek}), que não usa OFFSET nem COUNT.
+ */
+@ApplicationScoped
+public class Paginator {
+
+    @Inject
+    AfterCommit afterCommit;
+
+    @ConfigProperty(name = "kokusen.pagination.count-cache.ttl", defaultValue = "5s")
+    Duration countTtl;
+
+    @ConfigProperty(name = "kokusen.pagination.count-cache.max-entries", defaultValue = "10000")
+    int maxEntries;
+
+    @ConfigProperty(name = "kokusen.pagination.max-size", defaultValue = "100")
+    int maxSize;
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    // incrementado a cada invalidação; um COUNT concorrente com ela não pode ficar no cache
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Busca a página {@code pageIndex} (base 0). Com {@code includeTotal} o total vem do cache
+     * de contagens; sem ele, lê uma linha a mais só para saber se há próxima página.
+     */
+    public <T> PageResult<T> page(PanacheQuery<T> query, int pageIndex, int size,
+                                  boolean includeTotal, String countKey) {
+        int first = pageIndex * size;
+
+        if (!includeTotal) {
+            List<T> items = query.range(first, first + size).list();
+            boolean hasMore = items.size() > size;
+            return new PageResult<>(hasMore ? items.subList(0, size) : items, null, null, hasMore);
+        }
+
+        List<T> items = query.page(pageIndex, size).list();
+        long total = count(countKey, query::count);
+        int totalPages = (int) ((total + size - 1) / size);
+        return new PageResult<>(items, total, totalPages, pageIndex + 1 < totalPages);
+    }
+
+    /**
+     * Modo keyset: busca {@code size + 1} linhas a partir do cursor para saber se há próxima página,
+     * sem OFFSET e sem contagem total. {@code filter} (opcional) é o filtro da busca por nome;
+     * {@code sortValue} lê o valor do campo de ordenação guardado no cursor e {@code converter}
+     * o converte de volta para o tipo do campo. {@code size} menor que 1 resulta em 400 e acima
+     * de {@code kokusen.pagination.max-size} é reduzido ao máximo.
+     */
+    public <T extends PanacheEntity> KeysetPage<T> seek(Finder<T> finder, NameSearch.Filter filter,
+                                                        String cursor, String sort, String direction, int size,
+                                                        Function<T, String> sortValue,
+                                                        Function<String, Object> converter) {
+        if (size < 1) {
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "size must be at least 1"))
+                    .build());
+        }
+        int limit = Math.min(size, maxSize);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        KeysetCursor after = KeysetCursor.decode(cursor, sort, descending);
+
+        List<String> where = new ArrayList<>();
+        Parameters params = new Parameters();
+        if (filter != null) {
+            where.add(filter.predicate());
+            filter.parameters().forEach(params::and);
+        }
+        if (after != null) {
+            where.add(after.predicate());
+            after.bind(params, converter);
+        }
+
+        List<T> rows = finder.find(String.join(" and ", where), KeysetCursor.sort(sort, descending), params)
+                .range(0, limit)
+                .list();
+
+        boolean hasMore = rows.size() > limit;
+        if (!hasMore) {
+            return new KeysetPage<>(rows, false, null, limit, sort, descending);
+        }
+        rows = rows.subList(0, limit);
+        T last = rows.get(limit - 1);
+        String next = KeysetCursor.encode(sort, descending, sortValue.apply(last), last.id);
+        return new KeysetPage<>(rows, true, next, limit, sort, descending);
+    }
+
+    public long count(String key, LongSupplier counter) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.expiresAt - now > 0) {
+            return cached.value;
+        }
+
+        long seen = invalidations.get();
+        long value = counter.getAsLong();
+        if (invalidations.get() != seen) return value;
+        if (counts.size() >= maxEntries) {
+            counts.values().removeIf(c -> c.expiresAt - now <= 0);
+            if (counts.size() >= maxEntries) return value;
+        }
+        counts.put(key, new CachedCount(value, now + countTtl.toNanos()));
+        if (invalidations.get() != seen) {
+            // uma escrita terminou durante o COUNT: o total pode estar velho
+            counts.remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Descarta os totais em cache depois do commit da transação corrente; chamado pelos endpoints
+     * de escrita. Um COUNT que corria durante a invalidação não é guardado.
+     */
+    public void invalidateCounts() {
+        afterCommit.run(() -> {
+            invalidations.incrementAndGet();
+            counts.clear();
+        });
+    }
+
+    /**
+     * Normaliza o texto de busca para compor a chave do cache de contagens.
+     */
+    public static String countKey(String scope, String q) {
+        return q == null || q.isBlank() ? scope : scope + ":q=" + q.toLowerCase();
+    }
+
+    /**
+     * Monta a consulta da entidade (com os fetches que a listagem precisar) para o modo keyset.
+     */
+    @FunctionalInterface
+    public interface Finder<T> {
+        PanacheQuery<T> find(String query, Sort sort, Parameters params);
+    }
+
+    private record CachedCount(long value, long expiresAt) {
+    }
+}
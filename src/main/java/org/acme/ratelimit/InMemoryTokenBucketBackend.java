@@ -0,0 +1,38 @@
+package org.acme.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Backend compartilhado dentro de um único processo: substituto local do banco nos testes
+ * (várias {@link SharedRateLimitStore} sobre a mesma instância simulam réplicas).
+ */
+public class InMemoryTokenBucketBackend implements TokenBucketBackend {
+
+    private final Map<String, Long> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public Grant take(String key, Rate rate, int requested, long now) {
+        int[] granted = new int[1];
+        long[] retryAfter = new long[1];
+        long newTat = buckets.compute(key, (k, tat) -> {
+            long current = tat != null ? tat : now;
+            granted[0] = (int) TokenBucketBackend.grantable(current, rate, requested, now);
+            if (granted[0] == 0) {
+                retryAfter[0] = TokenBucketBackend.retryAfter(current, rate, now);
+                return current;
+            }
+            return Math.max(current, now) + rate.emissionIntervalNanos() * granted[0];
+        });
+        return new Grant(granted[0], TokenBucketBackend.available(newTat, rate, now), retryAfter[0]);
+    }
+
+    @Override
+    public void purge(long now) {
+        buckets.values().removeIf(tat -> tat - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,114 @@
+package org.acme.ratelimit;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Baldes numa tabela do banco compartilhado pelas réplicas ({@code bucket_key}, {@code tat}).
+ * Cada retirada é uma transação curta com a linha travada ({@code select ... for update});
+ * como as instâncias arrendam fichas em lote, isso acontece uma vez a cada várias requisições.
+ */
+public class JdbcTokenBucketBackend implements TokenBucketBackend {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DataSource dataSource;
+    private final String select;
+    private final String insert;
+    private final String update;
+    private final String purge;
+
+    public JdbcTokenBucketBackend(DataSource dataSource, String table) {
+        if (!table.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid rate limit table name: " + table);
+        }
+        this.dataSource = dataSource;
+        this.select = "select tat from " + table + " where bucket_key = ? for update";
+        this.insert = "insert into " + table + " (bucket_key, tat) values (?, ?)";
+        this.update = "update " + table + " set tat = ? where bucket_key = ?";
+        this.purge = "delete from " + table + " where tat <= ?";
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists " + table
+                    + " (bucket_key varchar(255) not null primary key, tat bigint not null)");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create rate limit table " + table, e);
+        }
+    }
+
+    @Override
+    public Grant take(String key, Rate rate, int requested, long now) {
+        SQLException last = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    Grant grant = take(connection, key, rate, requested, now);
+                    connection.commit();
+                    return grant;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                // só a violação de chave (outra instância criou a mesma chave ao mesmo tempo) vale uma
+                // nova tentativa, agora com a linha existente; banco fora do ar ou timeout sobem na hora
+                if (!isIntegrityViolation(e)) {
+                    throw new IllegalStateException("Could not update rate limit bucket " + key, e);
+                }
+                last = e;
+            }
+        }
+        throw new IllegalStateException("Could not update rate limit bucket " + key, last);
+    }
+
+    @Override
+    public void purge(long now) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(purge)) {
+            statement.setLong(1, now);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not purge rate limit buckets", e);
+        }
+    }
+
+    private Grant take(Connection connection, String key, Rate rate, int requested, long now) throws SQLException {
+        Long tat = null;
+        try (PreparedStatement statement = connection.prepareStatement(select)) {
+            statement.setString(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) tat = rs.getLong(1);
+            }
+        }
+
+        long current = tat != null ? tat : now;
+        int granted = (int) TokenBucketBackend.grantable(current, rate, requested, now);
+        if (granted == 0) {
+            return new Grant(0, 0, TokenBucketBackend.retryAfter(current, rate, now));
+        }
+
+        long newTat = Math.max(current, now) + rate.emissionIntervalNanos() * granted;
+        try (PreparedStatement statement = connection.prepareStatement(tat != null ? update : insert)) {
+            if (tat != null) {
+                statement.setLong(1, newTat);
+                statement.setString(2, key);
+            } else {
+                statement.setString(1, key);
+                statement.setLong(2, newTat);
+            }
+            statement.executeUpdate();
+        }
+        return new Grant(granted, TokenBucketBackend.available(newTat, rate, now), 0);
+    }
+
+    // classe 23 do SQLState: violação de restrição de integridade (23505 é a de chave única)
+    private static boolean isIntegrityViolation(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("23");
+    }
+}
@@ -0,0 +1,28 @@
+package org.acme.ratelimit;
+
+/**
+ * Baldes em memória, por instância: cada réplica conta sozinha.
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final RateLimiter limiter;
+
+    public LocalRateLimitStore(RateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public RateLimiter.Decision acquire(String key, Rate rate, int cost) {
+        return limiter.acquire(key, rate, cost);
+    }
+
+    @Override
+    public void sweep() {
+        limiter.sweepNext();
+    }
+
+    @Override
+    public int trackedKeys() {
+        return limiter.trackedKeys();
+    }
+}
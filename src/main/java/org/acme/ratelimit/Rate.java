@@ -0,0 +1,23 @@
+package org.acme.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Taxa de um balde: até {@code burst} requisições de uma vez, repostas uma a cada
+ * {@code emissionIntervalNanos}.
+ */
+public record Rate(int burst, long emissionIntervalNanos) {
+
+    public Rate {
+        if (burst <= 0 || emissionIntervalNanos <= 0) {
+            throw new IllegalArgumentException("burst and emission interval must be positive");
+        }
+    }
+
+    /**
+     * {@code limit} requisições por {@code window}, todas podendo chegar em rajada.
+     */
+    public static Rate of(int limit, Duration window) {
+        return new Rate(limit, Math.max(1, window.toNanos() / limit));
+    }
+}
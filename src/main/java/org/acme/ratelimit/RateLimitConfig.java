@@ -0,0 +1,131 @@
+package org.acme.ratelimit;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Configuração do rate limit ({@code kokusen.rate-limit.*}). {@code limit}/{@code window}/{@code burst}
+ * formam a política padrão; {@code policies.<nome>.*} define políticas por rota, método e classe de cliente.
+ */
+@ConfigMapping(prefix = "kokusen.rate-limit")
+public interface RateLimitConfig {
+
+    @WithDefault("true")
+    boolean enabled();
+
+    @WithDefault("50")
+    int limit();
+
+    @WithDefault("10s")
+    Duration window();
+
+    OptionalInt burst();
+
+    @WithDefault("100000")
+    int maxKeys();
+
+    @WithDefault("64")
+    int stripes();
+
+    @WithDefault("1s")
+    Duration sweepInterval();
+
+    /**
+     * Onde ficam os baldes: {@code memory} (por instância) ou {@code shared} (banco compartilhado
+     * entre as réplicas, com fichas arrendadas em lote).
+     */
+    @WithDefault("memory")
+    String store();
+
+    Shared shared();
+
+    /**
+     * Proxies (IPs ou blocos CIDR) cujo {@code X-Forwarded-For} é aceito; sem eles o cliente é
+     * sempre o endereço da conexão e o header é ignorado.
+     */
+    Optional<List<String>> trustedProxies();
+
+    /**
+     * Classes de cliente pelos IPs que as compõem; quem não está em nenhuma é {@code anonymous}.
+     */
+    Map<String, List<String>> clientClasses();
+
+    Map<String, Policy> policies();
+
+    Log log();
+
+    /**
+     * Log agregado dos bloqueios: intervalo entre flushes, clientes distintos contados e quantos
+     * aparecem na linha de log.
+     */
+    interface Log {
+
+        @WithDefault("10s")
+        Duration interval();
+
+        @WithDefault("10000")
+        int maxClients();
+
+        @WithDefault("10")
+        int top();
+    }
+
+    interface Policy {
+
+        /**
+         * Padrão sobre o template da rota ({@code /characters/{id}}): {@code *} casa um segmento
+         * e {@code **} qualquer sequência.
+         */
+        String path();
+
+        Optional<List<String>> methods();
+
+        Optional<List<String>> clients();
+
+        int limit();
+
+        Duration window();
+
+        OptionalInt burst();
+
+        @WithDefault("1")
+        int cost();
+    }
+
+    interface Shared {
+
+        /**
+         * Fichas reservadas no banco de uma vez por chave; a requisição seguinte é atendida localmente.
+         */
+        @WithDefault("10")
+        int leaseSize();
+
+        /**
+         * Tempo até fichas arrendadas e não usadas serem descartadas.
+         */
+        @WithDefault("1s")
+        Duration leaseTtl();
+
+        @WithDefault("rate_limit_bucket")
+        String table();
+
+        /**
+         * Intervalo entre as limpezas das linhas de baldes já cheios no banco.
+         */
+        @WithDefault("1m")
+        Duration purgeInterval();
+
+        /**
+         * Com o banco dos baldes fora do ar: {@code open} libera as requisições sem limite,
+         * {@code closed} as recusa com {@code 429}. A escolha é logada quando o banco cai.
+         */
+        @WithDefault("open")
+        String onFailure();
+    }
+}
@@ -0,0 +1,71 @@
+package org.acme.ratelimit;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Registro dos bloqueios do rate limit. O filtro só incrementa um contador por cliente e
+ * política; a cada intervalo a tarefa agendada troca o mapa e escreve uma linha com o
+ * total e os clientes mais bloqueados, fora do caminho das requisições.
+ */
+@ApplicationScoped
+public class RateLimitLog {
+
+    private static final Logger LOG = Logger.getLogger(RateLimitLog.class);
+
+    private static final String OTHERS = "(others)";
+
+    private record Key(String client, String policy) {
+    }
+
+    @Inject
+    RateLimitConfig config;
+
+    int maxClients;
+    int top;
+
+    private final AtomicReference<Map<Key, LongAdder>> blocked = new AtomicReference<>(new ConcurrentHashMap<>());
+
+    @PostConstruct
+    void init() {
+        maxClients = config.log().maxClients();
+        top = config.log().top();
+    }
+
+    public void blocked(String client, String policy) {
+        Map<Key, LongAdder> counters = blocked.get();
+        Key key = new Key(client, policy);
+        LongAdder counter = counters.get(key);
+        if (counter == null) {
+            // acima do limite de clientes distintos os bloqueios vão para um contador agregado
+            key = counters.size() < maxClients ? key : new Key(OTHERS, policy);
+            counter = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Scheduled(every = "${kokusen.rate-limit.log.interval:10s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flush() {
+        Map<Key, LongAdder> counters = blocked.getAndSet(new ConcurrentHashMap<>());
+        if (counters.isEmpty()) return;
+
+        long total = counters.values().stream().mapToLong(LongAdder::sum).sum();
+        String worst = counters.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Key, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(top)
+                .map(e -> "client=" + e.getKey().client() + " policy=" + e.getKey().policy() + " blocked=" + e.getValue().sum())
+                .collect(Collectors.joining("; "));
+
+        LOG.infof("rate-limit blocked=%d clients=%d top=[%s]", total, counters.size(), worst);
+    }
+}
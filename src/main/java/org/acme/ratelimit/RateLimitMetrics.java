@@ -0,0 +1,51 @@
+package org.acme.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contadores de decisões do rate limit por política ({@code kokusen.rate.limit.requests}, com
+ * {@code result=allowed|blocked}). Os contadores são registrados na subida, um par por política,
+ * e o filtro só faz uma consulta ao mapa e um incremento por requisição.
+ */
+@ApplicationScoped
+public class RateLimitMetrics {
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    RateLimitService rateLimitService;
+
+    private record Counters(Counter allowed, Counter blocked) {
+    }
+
+    private final Map<String, Counters> byPolicy = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (RateLimitPolicy policy : rateLimitService.policies()) {
+            byPolicy.put(policy.name(), new Counters(counter(policy, "allowed"), counter(policy, "blocked")));
+        }
+    }
+
+    public void record(RateLimitPolicy policy, boolean allowed) {
+        Counters counters = byPolicy.get(policy.name());
+        if (counters == null) return;
+        (allowed ? counters.allowed() : counters.blocked()).increment();
+    }
+
+    private Counter counter(RateLimitPolicy policy, String result) {
+        return Counter.builder("kokusen.rate.limit.requests")
+                .description("Requisições avaliadas pelo rate limit")
+                .tag("policy", policy.name())
+                .tag("result", result)
+                .register(registry);
+    }
+}
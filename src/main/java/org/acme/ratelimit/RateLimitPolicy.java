@@ -0,0 +1,50 @@
+package org.acme.ratelimit;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Política compilada: o balde de cada cliente é separado por política, e cada requisição
+ * coberta por ela consome {@code cost} fichas.
+ */
+public record RateLimitPolicy(String name, Pattern path, Set<String> methods, Set<String> clients,
+                              Rate rate, int cost, int specificity) {
+
+    public static final String DEFAULT = "default";
+
+    boolean matches(String template, String httpMethod) {
+        return (methods.isEmpty() || methods.contains(httpMethod)) && path.matcher(template).matches();
+    }
+
+    public boolean appliesTo(String clientClass) {
+        return clients.isEmpty() || clients.contains(clientClass);
+    }
+
+    /**
+     * Converte o padrão de rota em regex; padrões com menos curingas e mais longos são mais específicos.
+     */
+    static Pattern compile(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (glob.startsWith("/**/", i)) {
+                // "/**/" também casa uma única barra: /**/search cobre /search
+                regex.append("(?:/.*)?");
+                i += 2;
+            } else if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]+");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    static int specificity(String glob) {
+        int wildcards = glob.length() - glob.replace("*", "").length();
+        return glob.length() - 100 * wildcards;
+    }
+}
@@ -0,0 +1,136 @@
+package org.acme.ratelimit;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ResourceInfo;
+import org.acme.resource.Routes;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limite de requisições por cliente usado pelo {@code RateLimitFilter}. As políticas são
+ * compiladas na subida e resolvidas uma única vez por método de recurso; por requisição
+ * sobra uma consulta ao mapa e a checagem da classe do cliente. A varredura agendada
+ * faz a manutenção do {@link RateLimitStore} configurado.
+ */
+@ApplicationScoped
+public class RateLimitService {
+
+    public static final String ANONYMOUS = "anonymous";
+
+    @Inject
+    RateLimitConfig config;
+
+    @Inject
+    RateLimitStore store;
+
+    private RateLimitPolicy defaultPolicy;
+    private List<RateLimitPolicy> policies;
+    private Map<String, String> clientClasses;
+    private TrustedProxies trustedProxies;
+
+    private final Map<Method, List<RateLimitPolicy>> policiesByMethod = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        defaultPolicy = new RateLimitPolicy(RateLimitPolicy.DEFAULT, RateLimitPolicy.compile("/**"), Set.of(), Set.of(),
+                rate(config.limit(), config.window(), config.burst()), 1, Integer.MIN_VALUE);
+
+        policies = new ArrayList<>();
+        config.policies().forEach((name, p) -> {
+            RateLimitPolicy policy = new RateLimitPolicy(name, RateLimitPolicy.compile(p.path()),
+                    toSet(p.methods().map(m -> m.stream().map(String::toUpperCase).toList())),
+                    toSet(p.clients()),
+                    rate(p.limit(), p.window(), p.burst()), p.cost(), RateLimitPolicy.specificity(p.path()));
+            if (policy.cost() > policy.rate().burst()) {
+                throw new IllegalStateException("Rate limit policy '" + name + "' costs more than its burst");
+            }
+            policies.add(policy);
+        });
+        policies.sort(Comparator.<RateLimitPolicy>comparingInt(RateLimitPolicy::specificity).reversed()
+                .thenComparing(RateLimitPolicy::name));
+
+        clientClasses = new HashMap<>();
+        config.clientClasses().forEach((clientClass, ips) -> ips.forEach(ip -> clientClasses.put(ip.trim(), clientClass)));
+        trustedProxies = new TrustedProxies(config.trustedProxies().orElse(List.of()));
+    }
+
+    public boolean enabled() {
+        return config.enabled();
+    }
+
+    /**
+     * IP do cliente: o endereço da conexão, ou o do {@code X-Forwarded-For} quando a conexão vem de
+     * um proxy confiável. O header sozinho não escolhe a classe do cliente.
+     */
+    public String clientIp(String remoteAddress, String forwardedFor) {
+        return trustedProxies.client(remoteAddress, forwardedFor);
+    }
+
+    public String clientClass(String ip) {
+        return clientClasses.getOrDefault(ip, ANONYMOUS);
+    }
+
+    /**
+     * Política mais específica para o método de recurso e a classe do cliente; rotas não
+     * casadas (404, OpenAPI) e rotas sem política própria caem na padrão.
+     */
+    public RateLimitPolicy policy(ResourceInfo resource, String httpMethod, String clientClass) {
+        Method method = resource.getResourceMethod();
+        if (method == null) return defaultPolicy;
+
+        // o verbo vem da anotação do método: HEAD servido por um @GET usa as políticas de GET
+        List<RateLimitPolicy> candidates = policiesByMethod.computeIfAbsent(method,
+                m -> candidates(Routes.template(resource.getResourceClass(), m), Routes.httpMethod(m, httpMethod)));
+        for (RateLimitPolicy policy : candidates) {
+            if (policy.appliesTo(clientClass)) return policy;
+        }
+        return defaultPolicy;
+    }
+
+    public boolean blocking() {
+        return store.blocking();
+    }
+
+    /**
+     * Todas as políticas configuradas, inclusive a padrão.
+     */
+    public List<RateLimitPolicy> policies() {
+        List<RateLimitPolicy> all = new ArrayList<>(policies);
+        all.add(defaultPolicy);
+        return all;
+    }
+
+    public RateLimiter.Decision acquire(String client, RateLimitPolicy policy) {
+        return store.acquire(policy.name() + "|" + client, policy.rate(), policy.cost());
+    }
+
+    @Scheduled(every = "${kokusen.rate-limit.sweep-interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sweep() {
+        store.sweep();
+    }
+
+    private List<RateLimitPolicy> candidates(String template, String httpMethod) {
+        return policies.stream().filter(p -> p.matches(template, httpMethod)).toList();
+    }
+
+    private static Set<String> toSet(Optional<List<String>> values) {
+        return values.isPresent() ? Set.copyOf(values.get()) : Set.of();
+    }
+
+    private static Rate rate(int limit, Duration window, OptionalInt burst) {
+        return new Rate(burst.orElse(limit), Math.max(1, window.toNanos() / limit));
+    }
+}
@@ -0,0 +1,24 @@
+package org.acme.ratelimit;
+
+/**
+ * Armazenamento dos baldes do rate limit. A implementação é escolhida por
+ * {@code kokusen.rate-limit.store} em {@link RateLimitStoreProducer}.
+ */
+public interface RateLimitStore {
+
+    RateLimiter.Decision acquire(String key, Rate rate, int cost);
+
+    /**
+     * Manutenção periódica (chaves ociosas, arrendamentos vencidos), chamada pela varredura agendada.
+     */
+    void sweep();
+
+    int trackedKeys();
+
+    /**
+     * Se {@link #acquire} pode fazer I/O (e portanto não pode ser chamado no event loop).
+     */
+    default boolean blocking() {
+        return false;
+    }
+}
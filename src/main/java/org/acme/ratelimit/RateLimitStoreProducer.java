@@ -0,0 +1,54 @@
+package org.acme.ratelimit;
+
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+
+import java.time.Instant;
+
+/**
+ * Escolhe o {@link RateLimitStore} por {@code kokusen.rate-limit.store}: {@code memory} mantém os
+ * baldes na instância; {@code shared} os guarda no datasource padrão, compartilhado pelas réplicas.
+ */
+@ApplicationScoped
+public class RateLimitStoreProducer {
+
+    @Inject
+    RateLimitConfig config;
+
+    @Inject
+    Instance<AgroalDataSource> dataSource;
+
+    @Produces
+    @ApplicationScoped
+    RateLimitStore rateLimitStore() {
+        return switch (config.store()) {
+            case "memory" -> new LocalRateLimitStore(
+                    new RateLimiter(config.stripes(), config.maxKeys(), System::nanoTime));
+            case "shared" -> new SharedRateLimitStore(
+                    new JdbcTokenBucketBackend(dataSource.get(), config.shared().table()),
+                    config.shared().leaseSize(),
+                    config.shared().leaseTtl().toNanos(),
+                    config.shared().purgeInterval().toNanos(),
+                    config.maxKeys(),
+                    failOpen(config.shared().onFailure()),
+                    RateLimitStoreProducer::wallClockNanos);
+            default -> throw new IllegalStateException("Unknown rate limit store: " + config.store());
+        };
+    }
+
+    private static boolean failOpen(String onFailure) {
+        return switch (onFailure) {
+            case "open" -> true;
+            case "closed" -> false;
+            default -> throw new IllegalStateException("Unknown rate limit on-failure mode: " + onFailure);
+        };
+    }
+
+    private static long wallClockNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+}
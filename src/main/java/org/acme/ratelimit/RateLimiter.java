@@ -0,0 +1,123 @@
+package org.acme.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket no formato GCRA: o estado de cada chave é um único {@code long} (o instante
+ * teórico de chegada, TAT) atualizado por CAS, sem locks. As chaves ficam em mapas
+ * particionados; um balde cheio equivale a uma chave ausente, então a varredura remove
+ * chaves ociosas sem perder estado. Acima de {@code maxKeys} chaves as novas dividem o
+ * balde de transbordo da sua taxa em vez de crescer o mapa: quem enche o mapa com chaves
+ * novas esgota o transbordo de uma política, não o de todas.
+ */
+public class RateLimiter {
+
+    /**
+     * Resultado de uma tentativa: restante no balde e, se bloqueada, quanto esperar.
+     */
+    public record Decision(boolean allowed, long remaining, long retryAfterNanos) {
+    }
+
+    // marca um balde removido pela varredura; quem o encontrar busca (ou cria) outro
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    private final Map<String, AtomicLong>[] stripes;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final AtomicInteger keys = new AtomicInteger();
+    private final AtomicInteger sweepCursor = new AtomicInteger();
+    // um por taxa configurada: o número de políticas limita o mapa
+    private final Map<Rate, AtomicLong> overflow = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(int stripes, int maxKeys, LongSupplier nanoClock) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Map[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxKeys = maxKeys;
+        this.clock = nanoClock;
+    }
+
+    public Decision acquire(String key, Rate rate, int cost) {
+        long interval = rate.emissionIntervalNanos();
+        long increment = interval * cost;
+        long tolerance = interval * rate.burst();
+
+        while (true) {
+            AtomicLong bucket = bucket(key, rate);
+            long tat = bucket.get();
+            if (tat == EVICTED) {
+                stripe(key).remove(key, bucket);
+                continue;
+            }
+
+            long now = clock.getAsLong();
+            long newTat = Math.max(tat, now) + increment;
+            long excess = newTat - now - tolerance;
+            if (excess > 0) {
+                long remaining = (tolerance - (Math.max(tat, now) - now)) / interval;
+                return new Decision(false, Math.max(0, remaining), excess);
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return new Decision(true, (tolerance - (newTat - now)) / interval, 0);
+            }
+        }
+    }
+
+    /**
+     * Varre a próxima partição (roda de partições) removendo baldes que já encheram de novo.
+     */
+    public int sweepNext() {
+        int index = Math.floorMod(sweepCursor.getAndIncrement(), stripes.length);
+        Map<String, AtomicLong> stripe = stripes[index];
+        long now = clock.getAsLong();
+        int removed = 0;
+
+        for (Map.Entry<String, AtomicLong> entry : stripe.entrySet()) {
+            AtomicLong bucket = entry.getValue();
+            long tat = bucket.get();
+            if (tat != EVICTED && tat - now <= 0 && bucket.compareAndSet(tat, EVICTED)) {
+                stripe.remove(entry.getKey(), bucket);
+                keys.decrementAndGet();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void sweepAll() {
+        for (int i = 0; i < stripes.length; i++) {
+            sweepNext();
+        }
+    }
+
+    public int trackedKeys() {
+        return keys.get();
+    }
+
+    private AtomicLong bucket(String key, Rate rate) {
+        Map<String, AtomicLong> stripe = stripe(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) return bucket;
+
+        bucket = stripe.computeIfAbsent(key, k -> {
+            if (keys.incrementAndGet() > maxKeys) {
+                keys.decrementAndGet();
+                return null;
+            }
+            return new AtomicLong(clock.getAsLong());
+        });
+        return bucket != null ? bucket : overflow.computeIfAbsent(rate, r -> new AtomicLong(clock.getAsLong()));
+    }
+
+    private Map<String, AtomicLong> stripe(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+}
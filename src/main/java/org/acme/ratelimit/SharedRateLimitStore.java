@@ -0,0 +1,157 @@
+package org.acme.ratelimit;
+
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Baldes compartilhados entre réplicas. Em vez de ir ao backend a cada requisição, a instância
+ * arrenda até {@code leaseSize} fichas de uma vez e as consome localmente; fichas não usadas
+ * dentro de {@code leaseTtl} são descartadas, e uma recusa do backend vale localmente até o
+ * {@code retryAfter} informado. O limite global nunca é excedido, ao custo de
+ * fichas paradas no arrendamento de uma réplica não servirem às outras até expirarem.
+ * <p>
+ * O restante informado é o saldo global: o que sobrou no balde compartilhado na última ida ao
+ * backend mais as fichas ainda arrendadas por esta réplica. Entre duas idas ao backend as outras
+ * réplicas podem ter consumido parte desse saldo, então é uma estimativa defasada em no máximo
+ * {@code leaseTtl}.
+ * <p>
+ * Com o backend fora do ar a decisão é explícita ({@code failOpen}): liberar as requisições sem
+ * limite ou recusá-las por {@code leaseTtl}. A troca de estado é logada uma vez na queda e uma vez
+ * na volta, não a cada requisição.
+ */
+public class SharedRateLimitStore implements RateLimitStore {
+
+    private static final Logger LOG = Logger.getLogger(SharedRateLimitStore.class);
+
+    private static final class Lease {
+        final ReentrantLock lock = new ReentrantLock();
+        long tokens;
+        long shared;
+        long expiresAt;
+        long blockedUntil;
+    }
+
+    private final TokenBucketBackend backend;
+    private final int leaseSize;
+    private final long leaseTtlNanos;
+    private final long purgeIntervalNanos;
+    private final int maxKeys;
+    private final boolean failOpen;
+    private final LongSupplier clock;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurge;
+    private final AtomicBoolean unavailable = new AtomicBoolean();
+
+    /**
+     * @param failOpen       com o backend fora do ar, libera as requisições ({@code true}) ou as recusa
+     * @param wallClockNanos relógio de parede em nanos, comparável entre as instâncias
+     */
+    public SharedRateLimitStore(TokenBucketBackend backend, int leaseSize, long leaseTtlNanos,
+                                long purgeIntervalNanos, int maxKeys, boolean failOpen,
+                                LongSupplier wallClockNanos) {
+        this.backend = backend;
+        this.failOpen = failOpen;
+        this.leaseSize = leaseSize;
+        this.leaseTtlNanos = leaseTtlNanos;
+        this.purgeIntervalNanos = purgeIntervalNanos;
+        this.maxKeys = maxKeys;
+        this.clock = wallClockNanos;
+        this.lastPurge = new AtomicLong(wallClockNanos.getAsLong());
+    }
+
+    @Override
+    public RateLimiter.Decision acquire(String key, Rate rate, int cost) {
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            if (leases.size() >= maxKeys) {
+                // sem espaço para arrendamentos: vai direto ao backend com o custo exato
+                TokenBucketBackend.Grant grant = take(key, rate, cost, clock.getAsLong());
+                return grant.tokens() >= cost
+                        ? new RateLimiter.Decision(true, grant.remaining(), 0)
+                        : new RateLimiter.Decision(false, 0, grant.retryAfterNanos());
+            }
+            lease = leases.computeIfAbsent(key, k -> new Lease());
+        }
+
+        lease.lock.lock();
+        try {
+            long now = clock.getAsLong();
+            if (lease.expiresAt - now <= 0) {
+                lease.tokens = 0;
+                lease.shared = 0;
+            }
+            if (lease.tokens < cost && lease.blockedUntil - now > 0) {
+                // o backend já disse que não há fichas antes disso; as outras réplicas só podem consumir mais
+                return new RateLimiter.Decision(false, 0, lease.blockedUntil - now);
+            }
+            if (lease.tokens < cost) {
+                int wanted = (int) (Math.max(cost, Math.min(leaseSize, rate.burst())) - lease.tokens);
+                TokenBucketBackend.Grant grant = take(key, rate, wanted, now);
+                lease.shared = grant.remaining();
+                if (grant.tokens() > 0) {
+                    lease.tokens += grant.tokens();
+                    lease.expiresAt = now + leaseTtlNanos;
+                }
+                if (lease.tokens < cost) {
+                    long retryAfter = Math.max(1, grant.retryAfterNanos());
+                    lease.blockedUntil = now + retryAfter;
+                    return new RateLimiter.Decision(false, 0, retryAfter);
+                }
+            }
+            lease.tokens -= cost;
+            return new RateLimiter.Decision(true, lease.tokens + lease.shared, 0);
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    private TokenBucketBackend.Grant take(String key, Rate rate, int requested, long now) {
+        TokenBucketBackend.Grant grant;
+        try {
+            grant = backend.take(key, rate, requested, now);
+        } catch (RuntimeException e) {
+            if (unavailable.compareAndSet(false, true)) {
+                LOG.errorf(e, "Rate limit backend unavailable, %s requests until it recovers",
+                        failOpen ? "allowing (fail open)" : "rejecting (fail closed)");
+            }
+            return failOpen
+                    ? new TokenBucketBackend.Grant(requested, 0, 0)
+                    : new TokenBucketBackend.Grant(0, 0, leaseTtlNanos);
+        }
+        if (unavailable.compareAndSet(true, false)) {
+            LOG.info("Rate limit backend recovered");
+        }
+        return grant;
+    }
+
+    @Override
+    public void sweep() {
+        long now = clock.getAsLong();
+        leases.entrySet().removeIf(e -> {
+            Lease lease = e.getValue();
+            return lease.expiresAt - now <= 0 && lease.blockedUntil - now <= 0 && !lease.lock.isLocked();
+        });
+
+        long last = lastPurge.get();
+        if (now - last >= purgeIntervalNanos && lastPurge.compareAndSet(last, now)) {
+            backend.purge(now);
+        }
+    }
+
+    @Override
+    public int trackedKeys() {
+        return leases.size();
+    }
+
+    // renovar um arrendamento vai ao backend (a tabela no banco, em produção)
+    @Override
+    public boolean blocking() {
+        return true;
+    }
+}
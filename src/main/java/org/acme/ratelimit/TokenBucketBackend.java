@@ -0,0 +1,46 @@
+package org.acme.ratelimit;
+
+/**
+ * Baldes GCRA num armazenamento compartilhado entre instâncias. Os instantes são nanos de
+ * relógio de parede, comparáveis entre máquinas.
+ */
+public interface TokenBucketBackend {
+
+    /**
+     * Fichas concedidas (até {@code requested}), as que sobraram no balde depois da retirada e,
+     * se nenhuma couber, quanto esperar pela próxima.
+     */
+    record Grant(int tokens, long remaining, long retryAfterNanos) {
+    }
+
+    /**
+     * Retira atomicamente até {@code requested} fichas do balde {@code key}.
+     */
+    Grant take(String key, Rate rate, int requested, long now);
+
+    /**
+     * Remove baldes que já encheram de novo até {@code now}.
+     */
+    void purge(long now);
+
+    /**
+     * GCRA para {@code requested} fichas a partir do TAT armazenado; compartilhado pelos backends.
+     */
+    static long grantable(long tat, Rate rate, int requested, long now) {
+        return Math.min(requested, available(tat, rate, now));
+    }
+
+    /**
+     * Fichas no balde com o TAT armazenado.
+     */
+    static long available(long tat, Rate rate, long now) {
+        long tolerance = rate.emissionIntervalNanos() * rate.burst();
+        long backlog = Math.max(tat, now) - now;
+        return Math.max(0, (tolerance - backlog) / rate.emissionIntervalNanos());
+    }
+
+    static long retryAfter(long tat, Rate rate, long now) {
+        long tolerance = rate.emissionIntervalNanos() * rate.burst();
+        return Math.max(tat, now) + rate.emissionIntervalNanos() - now - tolerance;
+    }
+}
@@ -0,0 +1,82 @@
+package org.acme.ratelimit;
+
+import io.netty.util.NetUtil;
+
+import java.util.List;
+
+/**
+ * Proxies confiáveis ({@code kokusen.rate-limit.trusted-proxies}, IPs ou blocos CIDR) e a resolução
+ * do IP do cliente a partir deles. O {@code X-Forwarded-For} só é lido quando a conexão vem de um
+ * proxy confiável, e da direita para a esquerda: o primeiro endereço que não é de um proxy
+ * confiável é o cliente. O que o próprio cliente escreveu no header fica à esquerda e é ignorado.
+ */
+final class TrustedProxies {
+
+    private record Block(byte[] address, int prefix) {
+
+        boolean contains(byte[] ip) {
+            if (ip.length != address.length) return false;
+            int whole = prefix / 8;
+            for (int i = 0; i < whole; i++) {
+                if (ip[i] != address[i]) return false;
+            }
+            int bits = prefix % 8;
+            if (bits == 0) return true;
+            int mask = 0xFF << (8 - bits);
+            return (ip[whole] & mask) == (address[whole] & mask);
+        }
+    }
+
+    private final List<Block> blocks;
+
+    TrustedProxies(List<String> entries) {
+        blocks = entries.stream().map(String::trim).filter(e -> !e.isEmpty()).map(TrustedProxies::parse).toList();
+    }
+
+    /**
+     * IP do cliente para a conexão vinda de {@code peer}; sem proxies confiáveis é sempre {@code peer}.
+     */
+    String client(String peer, String forwardedFor) {
+        if (blocks.isEmpty() || forwardedFor == null || !trusted(peer)) return peer;
+
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) return peer;
+            if (!trusted(hop)) return hop;
+        }
+        // todos os saltos são proxies confiáveis: o cliente é o primeiro deles
+        return hops[0].trim();
+    }
+
+    private boolean trusted(String ip) {
+        // só literais: um nome no header não pode disparar uma consulta de DNS
+        byte[] address = ip != null ? NetUtil.createByteArrayFromIpAddressString(ip) : null;
+        if (address == null) return false;
+        for (Block block : blocks) {
+            if (block.contains(address)) return true;
+        }
+        return false;
+    }
+
+    private static Block parse(String entry) {
+        int slash = entry.indexOf('/');
+        String ip = slash < 0 ? entry : entry.substring(0, slash);
+        byte[] address = NetUtil.createByteArrayFromIpAddressString(ip);
+        if (address == null) {
+            throw new IllegalStateException("Invalid trusted proxy '" + entry + "'");
+        }
+        int prefix = address.length * 8;
+        if (slash >= 0) {
+            try {
+                prefix = Integer.parseInt(entry.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Invalid trusted proxy '" + entry + "'", e);
+            }
+            if (prefix < 0 || prefix > address.length * 8) {
+                throw new IllegalStateException("Invalid trusted proxy '" + entry + "'");
+            }
+        }
+        return new Block(address, prefix);
+    }
+}
@@ -4,7 +4,6 @@ import org.acme.entity.Clan;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ClanRepresentation {
     public Long id;
@@ -14,13 +13,15 @@ public class ClanRepresentation {
     public List<LinkRepresentation> links = new ArrayList<>();
 
     public static ClanRepresentation from(Clan c) {
+        return from(c, Clan.memberIds(c.id));
+    }
+
+    public static ClanRepresentation from(Clan c, List<Long> memberIds) {
         ClanRepresentation r = new ClanRepresentation();
         r.id = c.id;
         r.name = c.name;
         r.description = c.description != null ? c.description : "";
-        r.memberIds = c.members != null
-                ? c.members.stream().map(m -> m.id).collect(Collectors.toList())
-                : new ArrayList<>();
+        r.memberIds = memberIds != null ? memberIds : new ArrayList<>();
 
         String base = "/clans/" + c.id;
         r.links = new ArrayList<>();
@@ -0,0 +1,25 @@
+package org.acme.representation;
+
+import org.acme.search.FullTextIndex;
+import org.acme.search.FullTextSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchHitRepresentation {
+    public String type;
+    public Long id;
+    public String name;
+    public double score;
+    public List<LinkRepresentation> links = new ArrayList<>();
+
+    public static SearchHitRepresentation from(FullTextIndex.Hit hit) {
+        SearchHitRepresentation r = new SearchHitRepresentation();
+        r.type = hit.type();
+        r.id = hit.id();
+        r.name = hit.title();
+        r.score = Math.round(hit.score() * 1000) / 1000.0;
+        r.links.add(LinkRepresentation.self(FullTextSearch.path(hit.type(), hit.id())));
+        return r;
+    }
+}
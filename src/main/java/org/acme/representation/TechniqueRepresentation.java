@@ -4,7 +4,6 @@ import org.acme.entity.Technique;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class TechniqueRepresentation {
     public Long id;
@@ -14,13 +13,15 @@ public class TechniqueRepresentation {
     public List<LinkRepresentation> links = new ArrayList<>();
 
     public static TechniqueRepresentation from(Technique t) {
+        return from(t, Technique.userIds(t.id));
+    }
+
+    public static TechniqueRepresentation from(Technique t, List<Long> userIds) {
         TechniqueRepresentation r = new TechniqueRepresentation();
         r.id = t.id;
         r.name = t.name;
         r.description = t.description != null ? t.description : "";
-        r.userIds = t.users != null
-                ? t.users.stream().map(u -> u.id).collect(Collectors.toList())
-                : new ArrayList<>();
+        r.userIds = userIds != null ? userIds : new ArrayList<>();
 
         String base = "/techniques/" + t.id;
         r.links = new ArrayList<>();
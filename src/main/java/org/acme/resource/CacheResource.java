@@ -0,0 +1,50 @@
+package org.acme.resource;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.acme.cache.BoundedCache;
+import org.acme.cache.RepresentationCache;
+import org.acme.idempotency.IdempotencyStore;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Path("/cache")
+@Produces(MediaType.APPLICATION_JSON)
+public class CacheResource {
+
+    @Inject
+    RepresentationCache representationCache;
+
+    @Inject
+    IdempotencyStore idempotencyStore;
+
+    @GET
+    @Path("/stats")
+    @Operation(summary = "Estatísticas dos caches em memória",
+            description = "Retorna hits, misses, despejos, entradas e bytes ocupados de cada cache")
+    @APIResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso")
+    public Response stats() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        caches.put("representations", toMap(representationCache.stats()));
+        caches.put("idempotency", toMap(idempotencyStore.stats()));
+        return Response.ok(caches).build();
+    }
+
+    private static Map<String, Object> toMap(BoundedCache.Stats stats) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hits", stats.hits());
+        m.put("misses", stats.misses());
+        m.put("hitRatio", stats.hitRatio());
+        m.put("evictions", stats.evictions());
+        m.put("entries", stats.size());
+        m.put("bytes", stats.bytes());
+        return m;
+    }
+}
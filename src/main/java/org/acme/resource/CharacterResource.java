@@ -2,13 +2,27 @@ package org.acme.resource;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import org.acme.bulk.BulkService;
+import org.acme.bulk.CatalogExport;
+import org.acme.bulk.CatalogImport;
+import org.acme.cache.RepresentationCache;
 import org.acme.dto.CharacterRequest;
 import org.acme.dto.SearchCharacterResponse;
+import org.acme.dto.SearchTechniqueResponse;
 import org.acme.entity.*;
 import org.acme.entity.Character;
 import org.acme.idempotency.IdempotencyService;
+import org.acme.idempotency.SkipIdempotency;
+import org.acme.pagination.KeysetPage;
+import org.acme.pagination.PageResult;
+import org.acme.pagination.Paginator;
+import org.acme.search.FullTextSearch;
+import org.acme.search.NameSearch;
+import org.acme.search.TextNormalizer;
 import org.acme.representation.CharacterRepresentation;
 
 import jakarta.transaction.Transactional;
@@ -23,8 +37,12 @@ import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.jboss.resteasy.reactive.ResponseHeader;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -35,7 +53,32 @@ import java.util.Set;
 @Consumes(MediaType.APPLICATION_JSON)
 public class CharacterResource {
 
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    BulkService bulkService;
+
+    @Inject
+    CatalogExport catalogExport;
+
+    @Inject
+    CatalogImport catalogImport;
+
+    @Inject
+    Paginator paginator;
+
+    @Inject
+    NameSearch nameSearch;
+
+    @Inject
+    FullTextSearch fullTextSearch;
+
+    @Inject
+    RepresentationCache representationCache;
+
     @GET
+    @RunOnVirtualThread
     @Operation(
             summary = "Lista todos os personagens com paginação",
             description = "Retorna uma lista com todos os personagens do Jujutsu"
@@ -58,11 +101,23 @@ public class CharacterResource {
                          @QueryParam("sort") @DefaultValue("id") String sort,
 
                          @Parameter(description = "Direção da ordenação (asc/desc)")
-                         @QueryParam("direction") @DefaultValue("asc") String direction
+                         @QueryParam("direction") @DefaultValue("asc") String direction,
+
+                         @Parameter(description = "Cursor da paginação keyset (vazio para a primeira página); substitui page")
+                         @QueryParam("cursor") String cursor,
+
+                         @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+                         @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+
+                         @Context UriInfo uriInfo
     ) {
         Set<String> allowed = Set.of("id", "name", "rank");
         if (!allowed.contains(sort)) sort = "id";
 
+        if (uriInfo.getQueryParameters().containsKey("cursor")) {
+            return cursorPage(null, cursor, sort, direction, size, "/characters");
+        }
+
         Sort sortObj = Sort.by(
                 sort,
                 "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
@@ -70,20 +125,21 @@ public class CharacterResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        PanacheQuery<Character> query = Character.findAll(sortObj);
-        List<CharacterRepresentation> characters = query.page(effectivePage, size)
-                .list()
+        PanacheQuery<Character> query = Character.withSummaryGraph(Character.findAll(sortObj));
+        PageResult<Character> result = paginator.page(query, effectivePage, size, includeTotal, "characters");
+        List<CharacterRepresentation> characters = result.items()
                 .stream()
                 .map(CharacterRepresentation::from)
                 .toList();
 
         SearchCharacterResponse response = new SearchCharacterResponse();
         response.characters = characters;
-        response.totalCharacters = query.count();
-        response.totalPages = query.pageCount();
-        response.hasMore = (effectivePage + 1) < query.pageCount();
+        response.totalCharacters = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
         response.nextPage = response.hasMore
                 ? "/characters?page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                        + (includeTotal ? "" : "&includeTotal=false")
                 : "";
 
         return Response.ok(response).build();
@@ -98,17 +154,25 @@ public class CharacterResource {
             @APIResponse(responseCode = "200", description = "Personagem encontrado"),
             @APIResponse(responseCode = "404", description = "Personagem não encontrado")
     })
-    public Response getById(@Parameter(description = "ID do personagem", required = true)
-                            @PathParam("id") Long id) {
-        Character entity = Character.findById(id);
-        if (entity == null) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(Map.of("error", "Character not found")).build();
-        }
-        return Response.ok(CharacterRepresentation.from(entity)).build();
+    public Uni<Response> getById(@Parameter(description = "ID do personagem", required = true)
+                                 @PathParam("id") Long id) {
+        // retorna Uni: roda no event loop e só um miss do cache ocupa uma thread de worker
+        return representationCache.get(Character.class, id, () -> {
+            Character entity = Character.findById(id);
+            return entity != null ? CharacterRepresentation.from(entity) : null;
+        }).map(cached -> {
+            if (cached == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(Map.of("error", "Character not found")).build();
+            }
+            return Response.ok(cached.body(), MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ETAG, cached.etag())
+                    .build();
+        });
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/search")
     @Operation(summary = "Busca personagens por nome",
             description = "Retorna uma lista com personagens buscados por nome"
@@ -135,11 +199,23 @@ public class CharacterResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Tamanho da página")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Cursor da paginação keyset (vazio para a primeira página); substitui page")
+            @QueryParam("cursor") String cursor,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+
+            @Context UriInfo uriInfo
     ) {
         Set<String> allowed = Set.of("id", "name", "rank");
         if (!allowed.contains(sort)) sort = "id";
 
+        if (uriInfo.getQueryParameters().containsKey("cursor")) {
+            return cursorPage(q, cursor, sort, direction, size, "/characters/search");
+        }
+
         Sort sortObj = Sort.by(
                 sort,
                 "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
@@ -147,29 +223,36 @@ public class CharacterResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        PanacheQuery<Character> query = (q == null || q.isBlank())
-                ? Character.findAll(sortObj)
-                : Character.find("lower(name) like ?1", sortObj, "%" + q.toLowerCase() + "%");
+        PanacheQuery<Character> query;
+        if (q == null || q.isBlank()) {
+            query = Character.withSummaryGraph(Character.findAll(sortObj));
+        } else {
+            NameSearch.Filter filter = nameSearch.filter(Character.class, q);
+            query = Character.withSummaryGraph(Character.find(filter.predicate(), sortObj, filter.parameters()));
+        }
 
-        List<CharacterRepresentation> characters = query.page(effectivePage, size)
-                .list()
+        PageResult<Character> result = paginator.page(query, effectivePage, size, includeTotal,
+                Paginator.countKey("characters", q));
+        List<CharacterRepresentation> characters = result.items()
                 .stream()
                 .map(CharacterRepresentation::from)
                 .toList();
 
         SearchCharacterResponse response = new SearchCharacterResponse();
         response.characters = characters;
-        response.totalCharacters = query.count();
-        response.totalPages = query.pageCount();
-        response.hasMore = (effectivePage + 1) < query.pageCount();
+        response.totalCharacters = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
         response.nextPage = response.hasMore
-                ? "/characters/search?q=" + q + "&page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                ? "/characters/search?q=" + URLEncoder.encode(q != null ? q : "", StandardCharsets.UTF_8) + "&page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                        + (includeTotal ? "" : "&includeTotal=false")
                 : "";
 
         return Response.ok(response).build();
     }
 
     @POST
+    @RunOnVirtualThread
     @Operation(summary = "Cria um novo personagem",
             description = "Cria e persiste um personagem com as informações fornecidas"
     )
@@ -189,6 +272,8 @@ public class CharacterResource {
     public Response create(@Valid CharacterRequest input,
                            @Context UriInfo uriInfo) {
 
+        idempotencyService.reserve();
+
         if (input.name == null || input.name.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "Character name is required")).build();
         }
@@ -204,9 +289,9 @@ public class CharacterResource {
 
         // Clan
         if (input.clanName == null || input.clanName.isBlank()) {
-            character.clan = Clan.find("lower(name)", "sem clã").firstResult();
+            character.clan = Clan.find("normalizedName", TextNormalizer.normalize("Sem Clã")).firstResult();
         } else {
-            Clan clan = Clan.find("lower(name)", input.clanName.toLowerCase()).firstResult();
+            Clan clan = Clan.find("normalizedName", TextNormalizer.normalize(input.clanName)).firstResult();
             if (clan == null) {
                 return Response.status(Response.Status.BAD_REQUEST)
                         .entity(Map.of("error", "clan '" + input.clanName + "' not found"))
@@ -219,7 +304,7 @@ public class CharacterResource {
         List<Technique> resolvedTechniques = new ArrayList<>();
         if (input.techniqueNames != null && !input.techniqueNames.isEmpty()) {
             for (String tName : input.techniqueNames) {
-                Technique t = Technique.find("lower(name)", tName.toLowerCase()).firstResult();
+                Technique t = Technique.find("normalizedName", TextNormalizer.normalize(tName)).firstResult();
                 if (t == null) {
                     return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "technique '" + tName + "' not found")).build();
                 }
@@ -234,7 +319,7 @@ public class CharacterResource {
         DomainExpansion expansionToAssign = null;
         boolean expansionNeedPersist = false;
         if (input.domainExpansionName != null && !input.domainExpansionName.isBlank()) {
-            DomainExpansion existing = DomainExpansion.find("lower(name)", input.domainExpansionName.toLowerCase()).firstResult();
+            DomainExpansion existing = DomainExpansion.find("normalizedName", TextNormalizer.normalize(input.domainExpansionName)).firstResult();
             if (existing != null) {
                 if (existing.owner != null) {
                     return Response.status(Response.Status.CONFLICT).entity(Map.of("error", "domain expansion '" + input.domainExpansionName + "' already assigned to character id " + existing.owner.id)).build();
@@ -256,11 +341,83 @@ public class CharacterResource {
             character.persist();
         }
 
+        evictRelated(character);
+        nameSearch.index(Character.class, character.id, character.name);
+        fullTextSearch.index(Character.class, character.id, character.name, null);
+        if (expansionNeedPersist) {
+            nameSearch.index(DomainExpansion.class, expansionToAssign.id, expansionToAssign.name);
+            fullTextSearch.index(DomainExpansion.class, expansionToAssign.id, expansionToAssign.name, expansionToAssign.effect);
+        }
+        paginator.invalidateCounts();
+
         URI uri = uriInfo.getAbsolutePathBuilder().path(String.valueOf(character.id)).build();
         return Response.created(uri).entity(CharacterRepresentation.from(character)).build();
     }
 
+    @POST
+    @RunOnVirtualThread
+    @Path("/batch")
+    @Transactional
+    @Consumes({MediaType.APPLICATION_JSON, BulkService.NDJSON})
+    @Operation(summary = "Cria ou atualiza personagens em lote",
+            description = "Aceita um array JSON ou NDJSON (um personagem por linha). Com mode=upsert, o personagem de mesmo nome é atualizado"
+    )
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "Lote processado; o resultado de cada item vem em results"),
+            @APIResponse(responseCode = "400", description = "Corpo ou modo inválido"),
+            @APIResponse(responseCode = "413", description = "Lote acima do limite de itens")
+    })
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = SchemaType.ARRAY, implementation = CharacterRequest.class)
+            )
+    )
+    public Response batch(InputStream body,
+                          @Parameter(description = "create (padrão) ou upsert") @QueryParam("mode") @DefaultValue("create") String mode) {
+
+        idempotencyService.reserve();
+
+        BulkService.Mode bulkMode = BulkService.Mode.parse(mode);
+        return Response.ok(bulkService.characters(bulkService.read(body, CharacterRequest.class), bulkMode)).build();
+    }
+
+    @GET
+    @RunOnVirtualThread
+    @Path("/export")
+    @Produces(BulkService.NDJSON)
+    @Operation(summary = "Exporta todos os personagens",
+            description = "NDJSON com uma representação por linha, em ordem de id, enviado enquanto é lido do banco"
+    )
+    @APIResponse(responseCode = "200", description = "Catálogo completo em NDJSON")
+    @ResponseHeader(name = "Content-Disposition", value = "attachment; filename=\"characters.ndjson\"")
+    public StreamingOutput export() {
+        return out -> catalogExport.characters(out);
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @Path("/import")
+    @SkipIdempotency
+    @Consumes(BulkService.NDJSON)
+    @Produces(BulkService.NDJSON)
+    @Operation(summary = "Importa personagens de um arquivo NDJSON",
+            description = "O corpo é lido enquanto chega e gravado em blocos, cada um na sua transação. A resposta traz, em NDJSON, os erros de cada linha, o progresso após cada bloco e o resumo final"
+    )
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "Importação processada; erros por linha e progresso no corpo"),
+            @APIResponse(responseCode = "400", description = "Modo inválido")
+    })
+    public StreamingOutput importNdjson(InputStream body,
+                                        @Parameter(description = "create (padrão) ou upsert") @QueryParam("mode") @DefaultValue("create") String mode) {
+
+        BulkService.Mode importMode = BulkService.Mode.parse(mode);
+        return out -> catalogImport.characters(body, out, importMode);
+    }
+
     @PUT
+    @RunOnVirtualThread
     @Path("{id}")
     @Operation(summary = "Atualiza um personagem existente",
             description = "Atualiza os dados de um personagem pelo ID"
@@ -287,6 +444,9 @@ public class CharacterResource {
             return Response.status(Response.Status.NOT_FOUND).entity(Map.of("error", "Character not found")).build();
         }
 
+        // relacionamentos antigos; os novos são invalidados no fim
+        evictRelated(entity);
+
         if (input.name == null || input.name.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "Character name is required")).build();
         }
@@ -300,9 +460,9 @@ public class CharacterResource {
 
         // Clan
         if (input.clanName == null || input.clanName.isBlank()) {
-            entity.clan = Clan.find("lower(name)", "sem clã").firstResult();
+            entity.clan = Clan.find("normalizedName", TextNormalizer.normalize("Sem Clã")).firstResult();
         } else {
-            Clan clan = Clan.find("lower(name)", input.clanName.toLowerCase()).firstResult();
+            Clan clan = Clan.find("normalizedName", TextNormalizer.normalize(input.clanName)).firstResult();
             if (clan == null) {
                 return Response.status(Response.Status.BAD_REQUEST)
                         .entity(Map.of("error", "clan '" + input.clanName + "' not found"))
@@ -320,7 +480,7 @@ public class CharacterResource {
                 if (tName == null || tName.isBlank()) {
                     return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "each technique must have a valid name")).build();
                 }
-                Technique t = Technique.find("lower(name)", tName.toLowerCase()).firstResult();
+                Technique t = Technique.find("normalizedName", TextNormalizer.normalize(tName)).firstResult();
                 if (t == null) {
                     return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "technique '" + tName + "' not found")).build();
                 }
@@ -340,7 +500,7 @@ public class CharacterResource {
                 entity.domainExpansion = null;
             }
         } else {
-            DomainExpansion expansion = DomainExpansion.find("lower(name)", input.domainExpansionName.toLowerCase()).firstResult();
+            DomainExpansion expansion = DomainExpansion.find("normalizedName", TextNormalizer.normalize(input.domainExpansionName)).firstResult();
             if (expansion == null) {
                 return Response.status(Response.Status.BAD_REQUEST).entity(Map.of("error", "domain expansion '" + input.domainExpansionName + "' not found")).build();
             }
@@ -360,13 +520,19 @@ public class CharacterResource {
             expansion.owner = entity;
             if (input.domainExpansionEffect != null && !input.domainExpansionEffect.isBlank()) {
                 expansion.effect = input.domainExpansionEffect;
+                fullTextSearch.index(DomainExpansion.class, expansion.id, expansion.name, expansion.effect);
             }
         }
 
+        evictRelated(entity);
+        nameSearch.index(Character.class, entity.id, entity.name);
+        fullTextSearch.index(Character.class, entity.id, entity.name, null);
+        paginator.invalidateCounts();
         return Response.ok(CharacterRepresentation.from(entity)).build();
     }
 
     @DELETE
+    @RunOnVirtualThread
     @Path("/{id}")
     @Operation(summary = "Remove um personagem",
             description = "Deleta um personagem pelo ID sem excluir a sua expansão de domínio"
@@ -385,6 +551,8 @@ public class CharacterResource {
                     .entity(Map.of("error", "Character not found")).build();
         }
 
+        evictRelated(c);
+
         // Se o personagem tinha expansão, remover o vínculo antes
         if (c.domainExpansion != null) {
             c.domainExpansion.owner = null; // desvincula a expansão
@@ -392,10 +560,14 @@ public class CharacterResource {
         }
 
         c.delete();
+        nameSearch.remove(Character.class, id);
+        fullTextSearch.remove(Character.class, id);
+        paginator.invalidateCounts();
         return Response.noContent().build();
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/clan/{clanName}")
     @Operation(
             summary = "Lista personagens de um clã",
@@ -406,7 +578,7 @@ public class CharacterResource {
             description = "Lista de personagens retornada com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = CharacterRepresentation.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = SearchCharacterResponse.class)
             )
     )
     @APIResponse(responseCode = "404", description = "Clã não encontrado")
@@ -418,7 +590,10 @@ public class CharacterResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Quantidade de registros por página", example = "10")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal
     ) {
         Clan clan = Clan.find("name", clanName).firstResult();
         if (clan == null) {
@@ -428,16 +603,31 @@ public class CharacterResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        List<CharacterRepresentation> paged = clan.members.stream()
-                .skip((long) effectivePage * size)
-                .limit(size)
+        PanacheQuery<Character> query = Character.withSummaryGraph(Character.find("clan.id", Sort.by("id"), clan.id));
+        PageResult<Character> result = paginator.page(query, effectivePage, size, includeTotal,
+                "characters:clan=" + clan.id);
+        List<CharacterRepresentation> characters = result.items()
+                .stream()
                 .map(CharacterRepresentation::from)
                 .toList();
 
-        return Response.ok(paged).build();
+        SearchCharacterResponse response = new SearchCharacterResponse();
+        response.characters = characters;
+        response.totalCharacters = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
+        // o nome do clã vai codificado: espaços, acentos e barras quebrariam o link
+        UriBuilder next = UriBuilder.fromPath("/characters/clan/{clanName}")
+                .queryParam("page", page + 1)
+                .queryParam("size", size);
+        if (!includeTotal) next.queryParam("includeTotal", false);
+        response.nextPage = response.hasMore ? next.build(clan.name).toString() : "";
+
+        return Response.ok(response).build();
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/rank/{rank}")
     @Operation(
             summary = "Lista personagens por rank",
@@ -448,7 +638,7 @@ public class CharacterResource {
             description = "Lista de personagens retornada com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = CharacterRepresentation.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = SearchCharacterResponse.class)
             )
     )
     @APIResponse(responseCode = "400", description = "Rank inválido")
@@ -460,28 +650,45 @@ public class CharacterResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Quantidade de registros por página", example = "10")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal
     ) {
+        Rank enumRank;
         try {
-            Rank enumRank = Rank.valueOf(rank.toUpperCase());
-            List<Character> list = Character.list("rank", enumRank);
-
-            int effectivePage = page <= 1 ? 0 : page - 1;
-
-            List<CharacterRepresentation> paged = list.stream()
-                    .skip((long) effectivePage * size)
-                    .limit(size)
-                    .map(CharacterRepresentation::from)
-                    .toList();
-
-            return Response.ok(paged).build();
+            enumRank = Rank.valueOf(rank.toUpperCase());
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(Map.of("error", "Invalid rank: " + rank)).build();
         }
+
+        int effectivePage = page <= 1 ? 0 : page - 1;
+
+        // paginação feita no banco: só a página pedida é carregada
+        PanacheQuery<Character> query = Character.withSummaryGraph(Character.find("rank", Sort.by("id"), enumRank));
+        PageResult<Character> result = paginator.page(query, effectivePage, size, includeTotal,
+                "characters:rank=" + enumRank.name());
+        List<CharacterRepresentation> characters = result.items()
+                .stream()
+                .map(CharacterRepresentation::from)
+                .toList();
+
+        SearchCharacterResponse response = new SearchCharacterResponse();
+        response.characters = characters;
+        response.totalCharacters = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
+        response.nextPage = response.hasMore
+                ? "/characters/rank/" + enumRank.name() + "?page=" + (page + 1) + "&size=" + size
+                        + (includeTotal ? "" : "&includeTotal=false")
+                : "";
+
+        return Response.ok(response).build();
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/{id}/techniques")
     @Operation(
             summary = "Lista técnicas de um personagem",
@@ -492,7 +699,7 @@ public class CharacterResource {
             description = "Lista de técnicas retornada com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = TechniqueRepresentation.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = SearchTechniqueResponse.class)
             )
     )
     @APIResponse(responseCode = "404", description = "Personagem não encontrado")
@@ -504,7 +711,10 @@ public class CharacterResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Quantidade de registros por página", example = "10")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal
     ) {
         Character c = Character.findById(id);
         if (c == null) {
@@ -514,12 +724,71 @@ public class CharacterResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        List<TechniqueRepresentation> paged = c.techniques.stream()
-                .skip((long) effectivePage * size)
-                .limit(size)
-                .map(TechniqueRepresentation::from)
+        // consulta paginada no banco em vez de inicializar a coleção inteira
+        PanacheQuery<Technique> query = Technique.find(
+                "select t from Character c join c.techniques t where c.id = ?1 order by t.id", id);
+        PageResult<Technique> result = paginator.page(query, effectivePage, size, includeTotal,
+                "characters:" + id + ":techniques");
+        List<Technique> pageItems = result.items();
+        Map<Long, List<Long>> userIds = Technique.userIdsByTechnique(pageItems.stream().map(e -> e.id).toList());
+        List<TechniqueRepresentation> techniques = pageItems.stream()
+                .map(e -> TechniqueRepresentation.from(e, userIds.get(e.id)))
                 .toList();
 
-        return Response.ok(paged).build();
+        SearchTechniqueResponse response = new SearchTechniqueResponse();
+        response.techniques = techniques;
+        response.totalTechniques = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
+        response.nextPage = response.hasMore
+                ? "/characters/" + id + "/techniques?page=" + (page + 1) + "&size=" + size
+                        + (includeTotal ? "" : "&includeTotal=false")
+                : "";
+
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Invalida o personagem e as representações que o referenciam: membros do clã,
+     * usuários das técnicas e o dono da expansão de domínio.
+     */
+    private void evictRelated(Character c) {
+        representationCache.evict(Character.class, c.id);
+        if (c.clan != null) {
+            representationCache.evict(Clan.class, c.clan.id);
+        }
+        if (c.techniques != null) {
+            representationCache.evict(Technique.class, c.techniques.stream().map(t -> t.id).toList());
+        }
+        if (c.domainExpansion != null) {
+            representationCache.evict(DomainExpansion.class, c.domainExpansion.id);
+        }
+    }
+
+    /**
+     * Modo keyset de {@code list}/{@code search}: a consulta fica em {@link Paginator#seek};
+     * aqui só o valor de ordenação guardado no cursor e a montagem da resposta.
+     */
+    private Response cursorPage(String q, String cursor, String sort, String direction, int size, String path) {
+        NameSearch.Filter filter = q != null && !q.isBlank() ? nameSearch.filter(Character.class, q) : null;
+        KeysetPage<Character> page = paginator.seek(
+                (query, order, params) -> Character.withSummaryGraph(Character.find(query, order, params)),
+                filter, cursor, sort, direction, size,
+                e -> switch (sort) {
+                    case "name" -> e.name;
+                    case "rank" -> e.rank.name();
+                    default -> null;
+                },
+                v -> "rank".equals(sort) ? Rank.valueOf(v) : v);
+
+        SearchCharacterResponse response = new SearchCharacterResponse();
+        response.characters = page.items().stream()
+                .map(CharacterRepresentation::from)
+                .toList();
+        response.hasMore = page.hasMore();
+        response.nextCursor = page.nextCursor();
+        response.nextPage = page.nextPage(path, q);
+
+        return Response.ok(response).build();
     }
-}
\ No newline at end of file
+}
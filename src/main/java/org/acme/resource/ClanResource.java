@@ -2,13 +2,27 @@ package org.acme.resource;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import org.acme.bulk.BulkService;
+import org.acme.bulk.CatalogExport;
+import org.acme.bulk.CatalogImport;
+import org.acme.cache.RepresentationCache;
 import org.acme.dto.ClanRequest;
+import org.acme.dto.SearchCharacterResponse;
 import org.acme.dto.SearchClanResponse;
 import org.acme.entity.Clan;
 import org.acme.entity.Character;
 import org.acme.idempotency.IdempotencyService;
+import org.acme.idempotency.SkipIdempotency;
+import org.acme.pagination.KeysetPage;
+import org.acme.pagination.PageResult;
+import org.acme.pagination.Paginator;
+import org.acme.search.FullTextSearch;
+import org.acme.search.NameSearch;
+import org.acme.search.TextNormalizer;
 import org.acme.representation.CharacterRepresentation;
 import org.acme.representation.ClanRepresentation;
 
@@ -23,8 +37,12 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.jboss.resteasy.reactive.ResponseHeader;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,7 +52,32 @@ import java.util.Set;
 @Consumes(MediaType.APPLICATION_JSON)
 public class ClanResource {
 
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    BulkService bulkService;
+
+    @Inject
+    CatalogExport catalogExport;
+
+    @Inject
+    CatalogImport catalogImport;
+
+    @Inject
+    Paginator paginator;
+
+    @Inject
+    NameSearch nameSearch;
+
+    @Inject
+    FullTextSearch fullTextSearch;
+
+    @Inject
+    RepresentationCache representationCache;
+
     @GET
+    @RunOnVirtualThread
     @Operation(summary = "Lista todos os clãs com paginação",
             description = "Retorna uma lista paginada de clãs")
     @APIResponse(
@@ -55,11 +98,23 @@ public class ClanResource {
                          @QueryParam("sort") @DefaultValue("id") String sort,
 
                          @Parameter(description = "Direção da ordenação (asc/desc)")
-                         @QueryParam("direction") @DefaultValue("asc") String direction
+                         @QueryParam("direction") @DefaultValue("asc") String direction,
+
+                         @Parameter(description = "Cursor da paginação keyset (vazio para a primeira página); substitui page")
+                         @QueryParam("cursor") String cursor,
+
+                         @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+                         @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+
+                         @Context UriInfo uriInfo
     ) {
         Set<String> allowed = Set.of("id", "name");
         if (!allowed.contains(sort)) sort = "id";
 
+        if (uriInfo.getQueryParameters().containsKey("cursor")) {
+            return cursorPage(null, cursor, sort, direction, size, "/clans");
+        }
+
         Sort sortObj = Sort.by(
                 sort,
                 "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
@@ -68,19 +123,21 @@ public class ClanResource {
         int effectivePage = page <= 1 ? 0 : page - 1;
 
         PanacheQuery<Clan> query = Clan.findAll(sortObj);
-        List<ClanRepresentation> clans = query.page(effectivePage, size)
-                .list()
-                .stream()
-                .map(ClanRepresentation::from)
+        PageResult<Clan> result = paginator.page(query, effectivePage, size, includeTotal, "clans");
+        List<Clan> pageItems = result.items();
+        Map<Long, List<Long>> memberIds = Clan.memberIdsByClan(pageItems.stream().map(e -> e.id).toList());
+        List<ClanRepresentation> clans = pageItems.stream()
+                .map(e -> ClanRepresentation.from(e, memberIds.get(e.id)))
                 .toList();
 
         SearchClanResponse response = new SearchClanResponse();
         response.clans = clans;
-        response.totalClans = query.count();
-        response.totalPages = query.pageCount();
-        response.hasMore = (effectivePage + 1) < query.pageCount();
+        response.totalClans = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
         response.nextPage = response.hasMore
                 ? "/clans?page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                        + (includeTotal ? "" : "&includeTotal=false")
                 : "";
 
         return Response.ok(response).build();
@@ -95,18 +152,25 @@ public class ClanResource {
             @APIResponse(responseCode = "200", description = "Clã encontrado"),
             @APIResponse(responseCode = "404", description = "Clã não encontrado")
     })
-    public Response getById(@Parameter(description = "ID do clã", required = true)
-                            @PathParam("id") Long id) {
-
-        Clan c = Clan.findById(id);
-        if (c == null) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(Map.of("error", "Clan not found")).build();
-        }
-        return Response.ok(ClanRepresentation.from(c)).build();
+    public Uni<Response> getById(@Parameter(description = "ID do clã", required = true)
+                                 @PathParam("id") Long id) {
+        // retorna Uni: roda no event loop e só um miss do cache ocupa uma thread de worker
+        return representationCache.get(Clan.class, id, () -> {
+            Clan c = Clan.findById(id);
+            return c != null ? ClanRepresentation.from(c) : null;
+        }).map(cached -> {
+            if (cached == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(Map.of("error", "Clan not found")).build();
+            }
+            return Response.ok(cached.body(), MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ETAG, cached.etag())
+                    .build();
+        });
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/search")
     @Operation(summary = "Busca clãs por nome",
             description = "Retorna uma lista com clãs buscados por nome"
@@ -133,11 +197,23 @@ public class ClanResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Tamanho da página")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Cursor da paginação keyset (vazio para a primeira página); substitui page")
+            @QueryParam("cursor") String cursor,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+
+            @Context UriInfo uriInfo
     ) {
         Set<String> allowed = Set.of("id", "name");
         if (!allowed.contains(sort)) sort = "id";
 
+        if (uriInfo.getQueryParameters().containsKey("cursor")) {
+            return cursorPage(q, cursor, sort, direction, size, "/clans/search");
+        }
+
         Sort sortObj = Sort.by(
                 sort,
                 "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
@@ -145,29 +221,37 @@ public class ClanResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        PanacheQuery<Clan> query = (q == null || q.isBlank())
-                ? Clan.findAll(sortObj)
-                : Clan.find("lower(name) like ?1", sortObj, "%" + q.toLowerCase() + "%");
+        PanacheQuery<Clan> query;
+        if (q == null || q.isBlank()) {
+            query = Clan.findAll(sortObj);
+        } else {
+            NameSearch.Filter filter = nameSearch.filter(Clan.class, q);
+            query = Clan.find(filter.predicate(), sortObj, filter.parameters());
+        }
 
-        List<ClanRepresentation> clans = query.page(effectivePage, size)
-                .list()
-                .stream()
-                .map(ClanRepresentation::from)
+        PageResult<Clan> result = paginator.page(query, effectivePage, size, includeTotal,
+                Paginator.countKey("clans", q));
+        List<Clan> pageItems = result.items();
+        Map<Long, List<Long>> memberIds = Clan.memberIdsByClan(pageItems.stream().map(e -> e.id).toList());
+        List<ClanRepresentation> clans = pageItems.stream()
+                .map(e -> ClanRepresentation.from(e, memberIds.get(e.id)))
                 .toList();
 
         SearchClanResponse response = new SearchClanResponse();
         response.clans = clans;
-        response.totalClans = query.count();
-        response.totalPages = query.pageCount();
-        response.hasMore = (effectivePage + 1) < query.pageCount();
+        response.totalClans = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
         response.nextPage = response.hasMore
-                ? "/clans/search?q=" + q + "&page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                ? "/clans/search?q=" + URLEncoder.encode(q != null ? q : "", StandardCharsets.UTF_8) + "&page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                        + (includeTotal ? "" : "&includeTotal=false")
                 : "";
 
         return Response.ok(response).build();
     }
 
     @POST
+    @RunOnVirtualThread
     @Transactional
     @Operation(summary = "Cria um novo clã",
             description = "Cria e persiste um clã com as informações fornecidas"
@@ -188,12 +272,14 @@ public class ClanResource {
     public Response create(@Valid ClanRequest input,
                            @Context UriInfo uriInfo) {
 
+        idempotencyService.reserve();
+
         if (input.name == null || input.name.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(Map.of("error", "Clan name is required")).build();
         }
 
-        Clan existing = Clan.find("lower(name)", input.name.toLowerCase()).firstResult();
+        Clan existing = Clan.find("normalizedName", TextNormalizer.normalize(input.name)).firstResult();
         if (existing != null) {
             return Response.status(Response.Status.CONFLICT)
                     .entity(Map.of("error", "Clan with this name already exists")).build();
@@ -202,12 +288,78 @@ public class ClanResource {
         Clan entity = new Clan(input.name, input.description != null ? input.description : "");
         entity.persist();
 
+        nameSearch.index(Clan.class, entity.id, entity.name);
+        fullTextSearch.index(Clan.class, entity.id, entity.name, entity.description);
+        paginator.invalidateCounts();
+
         URI uri = uriInfo.getAbsolutePathBuilder().path(String.valueOf(entity.id)).build();
         return Response.created(uri).entity(ClanRepresentation.from(entity)).build();
     }
 
+    @POST
+    @RunOnVirtualThread
+    @Path("/batch")
+    @Transactional
+    @Consumes({MediaType.APPLICATION_JSON, BulkService.NDJSON})
+    @Operation(summary = "Cria ou atualiza clãs em lote",
+            description = "Aceita um array JSON ou NDJSON (um clã por linha). Com mode=upsert, o clã de mesmo nome é atualizado"
+    )
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "Lote processado; o resultado de cada item vem em results"),
+            @APIResponse(responseCode = "400", description = "Corpo ou modo inválido"),
+            @APIResponse(responseCode = "413", description = "Lote acima do limite de itens")
+    })
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = SchemaType.ARRAY, implementation = ClanRequest.class)
+            )
+    )
+    public Response batch(InputStream body,
+                          @Parameter(description = "create (padrão) ou upsert") @QueryParam("mode") @DefaultValue("create") String mode) {
+
+        idempotencyService.reserve();
+
+        BulkService.Mode bulkMode = BulkService.Mode.parse(mode);
+        return Response.ok(bulkService.clans(bulkService.read(body, ClanRequest.class), bulkMode)).build();
+    }
+
+    @GET
+    @RunOnVirtualThread
+    @Path("/export")
+    @Produces(BulkService.NDJSON)
+    @Operation(summary = "Exporta todos os clãs",
+            description = "NDJSON com uma representação por linha, em ordem de id, enviado enquanto é lido do banco"
+    )
+    @APIResponse(responseCode = "200", description = "Catálogo completo em NDJSON")
+    @ResponseHeader(name = "Content-Disposition", value = "attachment; filename=\"clans.ndjson\"")
+    public StreamingOutput export() {
+        return out -> catalogExport.clans(out);
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @Path("/import")
+    @SkipIdempotency
+    @Consumes(BulkService.NDJSON)
+    @Produces(BulkService.NDJSON)
+    @Operation(summary = "Importa clãs de um arquivo NDJSON",
+            description = "O corpo é lido enquanto chega e gravado em blocos, cada um na sua transação. A resposta traz, em NDJSON, os erros de cada linha, o progresso após cada bloco e o resumo final"
+    )
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "Importação processada; erros por linha e progresso no corpo"),
+            @APIResponse(responseCode = "400", description = "Modo inválido")
+    })
+    public StreamingOutput importNdjson(InputStream body,
+                                        @Parameter(description = "create (padrão) ou upsert") @QueryParam("mode") @DefaultValue("create") String mode) {
+
+        BulkService.Mode importMode = BulkService.Mode.parse(mode);
+        return out -> catalogImport.clans(body, out, importMode);
+    }
 
     @PUT
+    @RunOnVirtualThread
     @Path("{id}")
     @Transactional
     @Operation(summary = "Atualiza um clã existente",
@@ -241,19 +393,29 @@ public class ClanResource {
                     .entity(Map.of("error", "Clan name is required")).build();
         }
 
-        Clan existing = Clan.find("lower(name)", input.name.toLowerCase()).firstResult();
+        Clan existing = Clan.find("normalizedName", TextNormalizer.normalize(input.name)).firstResult();
         if (existing != null && !existing.id.equals(id)) {
             return Response.status(Response.Status.CONFLICT)
                     .entity(Map.of("error", "Clan with this name already exists")).build();
         }
 
+        representationCache.evict(Clan.class, id);
+        if (!entity.name.equals(input.name)) {
+            // clanName aparece na representação de cada membro
+            representationCache.evict(Character.class, Clan.memberIds(id));
+        }
+
         entity.name = input.name;
         entity.description = input.description != null ? input.description : "";
 
+        nameSearch.index(Clan.class, entity.id, entity.name);
+        fullTextSearch.index(Clan.class, entity.id, entity.name, entity.description);
+        paginator.invalidateCounts();
         return Response.ok(ClanRepresentation.from(entity)).build();
     }
 
     @DELETE
+    @RunOnVirtualThread
     @Path("/{id}")
     @Transactional
     @Operation(summary = "Remove um clã",
@@ -273,14 +435,16 @@ public class ClanResource {
                     .entity(Map.of("error", "Clan not found")).build();
         }
 
-        Clan semClan = Clan.find("lower(name)", "sem clã").firstResult();
+        Clan semClan = Clan.find("normalizedName", TextNormalizer.normalize("Sem Clã")).firstResult();
         if (semClan == null) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(Map.of("error", "Default clan 'Sem Clã' not found in the system"))
                     .build();
         }
 
+        representationCache.evict(Clan.class, List.of(id, semClan.id));
         if (entity.members != null && !entity.members.isEmpty()) {
+            representationCache.evict(Character.class, entity.members.stream().map(m -> m.id).toList());
             for (Character member : entity.members) {
                 member.clan = semClan;
                 member.persist();
@@ -288,10 +452,14 @@ public class ClanResource {
         }
 
         entity.delete();
+        nameSearch.remove(Clan.class, id);
+        fullTextSearch.remove(Clan.class, id);
+        paginator.invalidateCounts();
         return Response.noContent().build();
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/{id}/members")
     @Operation(summary = "Lista membros de um clã",
             description = "Retorna os personagens de um clã específico, com paginação"
@@ -301,7 +469,7 @@ public class ClanResource {
             description = "Lista de membros retornada com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = CharacterRepresentation.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = SearchCharacterResponse.class)
             )
     )
     @APIResponse(responseCode = "404", description = "Clã não encontrado")
@@ -313,7 +481,10 @@ public class ClanResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Quantidade de registros por página")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal
     ) {
         Clan c = Clan.findById(id);
         if (c == null) {
@@ -323,12 +494,49 @@ public class ClanResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        List<CharacterRepresentation> paged = c.members.stream()
-                .skip((long) effectivePage * size)
-                .limit(size)
+        // consulta paginada no banco em vez de inicializar a coleção inteira
+        PanacheQuery<Character> query = Character.withSummaryGraph(Character.find("clan.id", Sort.by("id"), id));
+        PageResult<Character> result = paginator.page(query, effectivePage, size, includeTotal,
+                "clans:" + id + ":members");
+        List<CharacterRepresentation> members = result.items()
+                .stream()
                 .map(CharacterRepresentation::from)
                 .toList();
 
-        return Response.ok(paged).build();
+        SearchCharacterResponse response = new SearchCharacterResponse();
+        response.characters = members;
+        response.totalCharacters = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
+        response.nextPage = response.hasMore
+                ? "/clans/" + id + "/members?page=" + (page + 1) + "&size=" + size
+                        + (includeTotal ? "" : "&includeTotal=false")
+                : "";
+
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Modo keyset de {@code list}/{@code search}: a consulta fica em {@link Paginator#seek};
+     * aqui só o valor de ordenação guardado no cursor e a montagem da resposta.
+     */
+    private Response cursorPage(String q, String cursor, String sort, String direction, int size, String path) {
+        NameSearch.Filter filter = q != null && !q.isBlank() ? nameSearch.filter(Clan.class, q) : null;
+        KeysetPage<Clan> page = paginator.seek(
+                (query, order, params) -> Clan.find(query, order, params),
+                filter, cursor, sort, direction, size,
+                e -> "name".equals(sort) ? e.name : null,
+                v -> v);
+
+        SearchClanResponse response = new SearchClanResponse();
+        Map<Long, List<Long>> memberIds = Clan.memberIdsByClan(page.items().stream().map(e -> e.id).toList());
+        response.clans = page.items().stream()
+                .map(e -> ClanRepresentation.from(e, memberIds.get(e.id)))
+                .toList();
+        response.hasMore = page.hasMore();
+        response.nextCursor = page.nextCursor();
+        response.nextPage = page.nextPage(path, q);
+
+        return Response.ok(response).build();
     }
-}
\ No newline at end of file
+}
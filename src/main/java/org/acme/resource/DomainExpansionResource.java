@@ -2,26 +2,45 @@ package org.acme.resource;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import org.acme.bulk.BulkService;
+import org.acme.bulk.CatalogExport;
+import org.acme.bulk.CatalogImport;
+import org.acme.cache.RepresentationCache;
 import org.acme.dto.DomainExpansionRequest;
 import org.acme.dto.SearchDomainExpansionResponse;
+import org.acme.entity.Character;
 import org.acme.entity.DomainExpansion;
 import org.acme.idempotency.IdempotencyService;
+import org.acme.idempotency.SkipIdempotency;
+import org.acme.pagination.KeysetPage;
+import org.acme.pagination.PageResult;
+import org.acme.pagination.Paginator;
+import org.acme.search.FullTextSearch;
+import org.acme.search.NameSearch;
+import org.acme.search.TextNormalizer;
 import org.acme.representation.DomainExpansionRepresentation;
 
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.jboss.resteasy.reactive.ResponseHeader;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,7 +50,32 @@ import java.util.Set;
 @Consumes(MediaType.APPLICATION_JSON)
 public class DomainExpansionResource {
 
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    BulkService bulkService;
+
+    @Inject
+    CatalogExport catalogExport;
+
+    @Inject
+    CatalogImport catalogImport;
+
+    @Inject
+    Paginator paginator;
+
+    @Inject
+    NameSearch nameSearch;
+
+    @Inject
+    FullTextSearch fullTextSearch;
+
+    @Inject
+    RepresentationCache representationCache;
+
     @GET
+    @RunOnVirtualThread
     @Operation(summary = "Lista todas as expansões de domínio com paginação",
             description = "Retorna uma lista paginada de expansões")
     @APIResponse(
@@ -52,11 +96,23 @@ public class DomainExpansionResource {
                          @QueryParam("sort") @DefaultValue("id") String sort,
 
                          @Parameter(description = "Direção da ordenação (asc/desc)")
-                         @QueryParam("direction") @DefaultValue("asc") String direction
+                         @QueryParam("direction") @DefaultValue("asc") String direction,
+
+                         @Parameter(description = "Cursor da paginação keyset (vazio para a primeira página); substitui page")
+                         @QueryParam("cursor") String cursor,
+
+                         @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+                         @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+
+                         @Context UriInfo uriInfo
     ) {
         Set<String> allowed = Set.of("id", "name");
         if (!allowed.contains(sort)) sort = "id";
 
+        if (uriInfo.getQueryParameters().containsKey("cursor")) {
+            return cursorPage(null, cursor, sort, direction, size, "/domain-expansions");
+        }
+
         Sort sortObj = Sort.by(
                 sort,
                 "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
@@ -65,19 +121,20 @@ public class DomainExpansionResource {
         int effectivePage = page <= 1 ? 0 : page - 1;
 
         PanacheQuery<DomainExpansion> query = DomainExpansion.findAll(sortObj);
-        List<DomainExpansionRepresentation> items = query.page(effectivePage, size)
-                .list()
+        PageResult<DomainExpansion> result = paginator.page(query, effectivePage, size, includeTotal, "domain-expansions");
+        List<DomainExpansionRepresentation> items = result.items()
                 .stream()
                 .map(DomainExpansionRepresentation::from)
                 .toList();
 
         SearchDomainExpansionResponse response = new SearchDomainExpansionResponse();
         response.domainExpansions = items;
-        response.totalDomainExpansions = query.count();
-        response.totalPages = query.pageCount();
-        response.hasMore = (effectivePage + 1) < query.pageCount();
+        response.totalDomainExpansions = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
         response.nextPage = response.hasMore
                 ? "/domain-expansions?page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                        + (includeTotal ? "" : "&includeTotal=false")
                 : "";
 
         return Response.ok(response).build();
@@ -92,18 +149,25 @@ public class DomainExpansionResource {
             @APIResponse(responseCode = "200", description = "Expansão encontrada"),
             @APIResponse(responseCode = "404", description = "Expansão não encontrada")
     })
-    public Response getById(@Parameter(description = "ID da expansão de domínio", required = true)
-                            @PathParam("id") Long id) {
-
-        DomainExpansion d = DomainExpansion.findById(id);
-        if (d == null) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(Map.of("error", "DomainExpansion not found")).build();
-        }
-        return Response.ok(DomainExpansionRepresentation.from(d)).build();
+    public Uni<Response> getById(@Parameter(description = "ID da expansão de domínio", required = true)
+                                 @PathParam("id") Long id) {
+        // retorna Uni: roda no event loop e só um miss do cache ocupa uma thread de worker
+        return representationCache.get(DomainExpansion.class, id, () -> {
+            DomainExpansion d = DomainExpansion.findById(id);
+            return d != null ? DomainExpansionRepresentation.from(d) : null;
+        }).map(cached -> {
+            if (cached == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(Map.of("error", "DomainExpansion not found")).build();
+            }
+            return Response.ok(cached.body(), MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ETAG, cached.etag())
+                    .build();
+        });
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/search")
     @Operation(
             summary = "Busca expansões de domínio por nome",
@@ -131,11 +195,23 @@ public class DomainExpansionResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Tamanho da página")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Cursor da paginação keyset (vazio para a primeira página); substitui page")
+            @QueryParam("cursor") String cursor,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+
+            @Context UriInfo uriInfo
     ) {
         Set<String> allowed = Set.of("id", "name");
         if (!allowed.contains(sort)) sort = "id";
 
+        if (uriInfo.getQueryParameters().containsKey("cursor")) {
+            return cursorPage(q, cursor, sort, direction, size, "/domain-expansions/search");
+        }
+
         Sort sortObj = Sort.by(
                 sort,
                 "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
@@ -143,29 +219,36 @@ public class DomainExpansionResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        PanacheQuery<DomainExpansion> query = (q == null || q.isBlank())
-                ? DomainExpansion.findAll(sortObj)
-                : DomainExpansion.find("lower(name) like ?1", sortObj, "%" + q.toLowerCase() + "%");
+        PanacheQuery<DomainExpansion> query;
+        if (q == null || q.isBlank()) {
+            query = DomainExpansion.findAll(sortObj);
+        } else {
+            NameSearch.Filter filter = nameSearch.filter(DomainExpansion.class, q);
+            query = DomainExpansion.find(filter.predicate(), sortObj, filter.parameters());
+        }
 
-        List<DomainExpansionRepresentation> items = query.page(effectivePage, size)
-                .list()
+        PageResult<DomainExpansion> result = paginator.page(query, effectivePage, size, includeTotal,
+                Paginator.countKey("domain-expansions", q));
+        List<DomainExpansionRepresentation> items = result.items()
                 .stream()
                 .map(DomainExpansionRepresentation::from)
                 .toList();
 
         SearchDomainExpansionResponse response = new SearchDomainExpansionResponse();
         response.domainExpansions = items;
-        response.totalDomainExpansions = query.count();
-        response.totalPages = query.pageCount();
-        response.hasMore = (effectivePage + 1) < query.pageCount();
+        response.totalDomainExpansions = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
         response.nextPage = response.hasMore
-                ? "/domain-expansions/search?q=" + q + "&page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                ? "/domain-expansions/search?q=" + URLEncoder.encode(q != null ? q : "", StandardCharsets.UTF_8) + "&page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                        + (includeTotal ? "" : "&includeTotal=false")
                 : "";
 
         return Response.ok(response).build();
     }
 
     @POST
+    @RunOnVirtualThread
     @Transactional
     @Operation(summary = "Cria uma nova expansão de domínio",
             description = "Cria e persiste uma expansão com as informações fornecidas"
@@ -185,12 +268,14 @@ public class DomainExpansionResource {
     public Response create(@Valid DomainExpansionRequest input,
                            @Context UriInfo uriInfo) {
 
+        idempotencyService.reserve();
+
         if (input.name == null || input.name.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(Map.of("error", "DomainExpansion name is required")).build();
         }
 
-        DomainExpansion existing = DomainExpansion.find("lower(name)", input.name.toLowerCase()).firstResult();
+        DomainExpansion existing = DomainExpansion.find("normalizedName", TextNormalizer.normalize(input.name)).firstResult();
         if (existing != null) {
             return Response.status(Response.Status.CONFLICT)
                     .entity(Map.of("error", "DomainExpansion with this name already exists")).build();
@@ -203,11 +288,78 @@ public class DomainExpansionResource {
         );
         entity.persist();
 
+        nameSearch.index(DomainExpansion.class, entity.id, entity.name);
+        fullTextSearch.index(DomainExpansion.class, entity.id, entity.name, entity.effect);
+        paginator.invalidateCounts();
+
         URI uri = uriInfo.getAbsolutePathBuilder().path(String.valueOf(entity.id)).build();
         return Response.created(uri).entity(DomainExpansionRepresentation.from(entity)).build();
     }
 
+    @POST
+    @RunOnVirtualThread
+    @Path("/batch")
+    @Transactional
+    @Consumes({MediaType.APPLICATION_JSON, BulkService.NDJSON})
+    @Operation(summary = "Cria ou atualiza expansões de domínio em lote",
+            description = "Aceita um array JSON ou NDJSON (uma expansão por linha). Com mode=upsert, a expansão de mesmo nome é atualizada"
+    )
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "Lote processado; o resultado de cada item vem em results"),
+            @APIResponse(responseCode = "400", description = "Corpo ou modo inválido"),
+            @APIResponse(responseCode = "413", description = "Lote acima do limite de itens")
+    })
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = SchemaType.ARRAY, implementation = DomainExpansionRequest.class)
+            )
+    )
+    public Response batch(InputStream body,
+                          @Parameter(description = "create (padrão) ou upsert") @QueryParam("mode") @DefaultValue("create") String mode) {
+
+        idempotencyService.reserve();
+
+        BulkService.Mode bulkMode = BulkService.Mode.parse(mode);
+        return Response.ok(bulkService.domainExpansions(bulkService.read(body, DomainExpansionRequest.class), bulkMode)).build();
+    }
+
+    @GET
+    @RunOnVirtualThread
+    @Path("/export")
+    @Produces(BulkService.NDJSON)
+    @Operation(summary = "Exporta todas as expansões de domínio",
+            description = "NDJSON com uma representação por linha, em ordem de id, enviado enquanto é lido do banco"
+    )
+    @APIResponse(responseCode = "200", description = "Catálogo completo em NDJSON")
+    @ResponseHeader(name = "Content-Disposition", value = "attachment; filename=\"domain-expansions.ndjson\"")
+    public StreamingOutput export() {
+        return out -> catalogExport.domainExpansions(out);
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @Path("/import")
+    @SkipIdempotency
+    @Consumes(BulkService.NDJSON)
+    @Produces(BulkService.NDJSON)
+    @Operation(summary = "Importa expansões de domínio de um arquivo NDJSON",
+            description = "O corpo é lido enquanto chega e gravado em blocos, cada um na sua transação. A resposta traz, em NDJSON, os erros de cada linha, o progresso após cada bloco e o resumo final"
+    )
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "Importação processada; erros por linha e progresso no corpo"),
+            @APIResponse(responseCode = "400", description = "Modo inválido")
+    })
+    public StreamingOutput importNdjson(InputStream body,
+                                        @Parameter(description = "create (padrão) ou upsert") @QueryParam("mode") @DefaultValue("create") String mode) {
+
+        BulkService.Mode importMode = BulkService.Mode.parse(mode);
+        return out -> catalogImport.domainExpansions(body, out, importMode);
+    }
+
     @PUT
+    @RunOnVirtualThread
     @Path("/{id}")
     @Transactional
     @Operation(summary = "Atualiza uma expansão de domínio existente",
@@ -241,19 +393,28 @@ public class DomainExpansionResource {
                     .entity(Map.of("error", "DomainExpansion name is required")).build();
         }
 
-        DomainExpansion existing = DomainExpansion.find("lower(name)", input.name.toLowerCase()).firstResult();
+        DomainExpansion existing = DomainExpansion.find("normalizedName", TextNormalizer.normalize(input.name)).firstResult();
         if (existing != null && !existing.id.equals(id)) {
             return Response.status(Response.Status.CONFLICT)
                     .entity(Map.of("error", "DomainExpansion with this name already exists")).build();
         }
 
+        representationCache.evict(DomainExpansion.class, id);
+        if (entity.owner != null && !entity.name.equals(input.name)) {
+            representationCache.evict(Character.class, entity.owner.id);
+        }
+
         entity.name = input.name;
         entity.effect = input.effect != null ? input.effect : "";
 
+        nameSearch.index(DomainExpansion.class, entity.id, entity.name);
+        fullTextSearch.index(DomainExpansion.class, entity.id, entity.name, entity.effect);
+        paginator.invalidateCounts();
         return Response.ok(DomainExpansionRepresentation.from(entity)).build();
     }
 
     @DELETE
+    @RunOnVirtualThread
     @Path("/{id}")
     @Transactional
     @Operation(summary = "Remove uma expansão de domínio",
@@ -272,14 +433,43 @@ public class DomainExpansionResource {
                     .entity(Map.of("error", "DomainExpansion not found")).build();
         }
 
+        representationCache.evict(DomainExpansion.class, id);
+
         // limpa a associação
         if (entity.owner != null) {
+            representationCache.evict(Character.class, entity.owner.id);
             entity.owner.domainExpansion = null;
             entity.owner.persist();
             entity.owner = null;
         }
 
         entity.delete();
+        nameSearch.remove(DomainExpansion.class, id);
+        fullTextSearch.remove(DomainExpansion.class, id);
+        paginator.invalidateCounts();
         return Response.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Modo keyset de {@code list}/{@code search}: a consulta fica em {@link Paginator#seek};
+     * aqui só o valor de ordenação guardado no cursor e a montagem da resposta.
+     */
+    private Response cursorPage(String q, String cursor, String sort, String direction, int size, String path) {
+        NameSearch.Filter filter = q != null && !q.isBlank() ? nameSearch.filter(DomainExpansion.class, q) : null;
+        KeysetPage<DomainExpansion> page = paginator.seek(
+                (query, order, params) -> DomainExpansion.find(query, order, params),
+                filter, cursor, sort, direction, size,
+                e -> "name".equals(sort) ? e.name : null,
+                v -> v);
+
+        SearchDomainExpansionResponse response = new SearchDomainExpansionResponse();
+        response.domainExpansions = page.items().stream()
+                .map(DomainExpansionRepresentation::from)
+                .toList();
+        response.hasMore = page.hasMore();
+        response.nextCursor = page.nextCursor();
+        response.nextPage = page.nextPage(path, q);
+
+        return Response.ok(response).build();
+    }
+}
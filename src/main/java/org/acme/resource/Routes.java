@@ -0,0 +1,42 @@
+package org.acme.resource;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Path;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Rota e verbo de um método de recurso, lidos das anotações JAX-RS; usados para casar as políticas
+ * do rate limit e para rotular as métricas por rota.
+ */
+public final class Routes {
+
+    private Routes() {}
+
+    /**
+     * Template da rota do método de recurso ({@code /characters/{id}}), juntando os {@code @Path}
+     * da classe e do método.
+     */
+    public static String template(Class<?> resourceClass, Method method) {
+        StringBuilder template = new StringBuilder();
+        for (Path path : new Path[]{resourceClass.getAnnotation(Path.class), method.getAnnotation(Path.class)}) {
+            if (path == null) continue;
+            String value = path.value().replaceAll("^/+|/+$", "");
+            if (!value.isEmpty()) template.append('/').append(value);
+        }
+        return template.isEmpty() ? "/" : template.toString();
+    }
+
+    /**
+     * Verbo declarado no método de recurso ({@code @GET}, {@code @POST}...), ou {@code fallback}
+     * quando o método não declara nenhum.
+     */
+    public static String httpMethod(Method method, String fallback) {
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (httpMethod != null) return httpMethod.value();
+        }
+        return fallback.toUpperCase();
+    }
+}
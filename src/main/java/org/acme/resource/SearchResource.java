@@ -0,0 +1,69 @@
+package org.acme.resource;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.acme.dto.SearchResultsResponse;
+import org.acme.representation.SearchHitRepresentation;
+import org.acme.search.FullTextIndex;
+import org.acme.search.FullTextSearch;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+
+import java.util.Map;
+
+@Path("/search")
+@Produces(MediaType.APPLICATION_JSON)
+public class SearchResource {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Inject
+    FullTextSearch fullTextSearch;
+
+    @GET
+    @Operation(summary = "Busca textual em todo o catálogo",
+            description = "Pesquisa nomes e descrições de personagens, clãs, técnicas e expansões de domínio, "
+                    + "ordenando os resultados por relevância (BM25)")
+    @APIResponse(
+            responseCode = "200",
+            description = "Resultados ordenados por relevância",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = SearchResultsResponse.class)
+            )
+    )
+    @APIResponse(responseCode = "400", description = "Parâmetros inválidos")
+    public Response search(
+            @Parameter(description = "Texto da pesquisa", required = true)
+            @QueryParam("q") String q,
+
+            @Parameter(description = "Restringe a um tipo (character, clan, technique, domain-expansion)")
+            @QueryParam("type") String type,
+
+            @Parameter(description = "Quantidade máxima de resultados")
+            @QueryParam("limit") @DefaultValue("10") int limit
+    ) {
+        if (q == null || q.isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Query parameter 'q' is required")).build();
+        }
+        if (type != null && !type.isBlank() && !FullTextSearch.isType(type)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Invalid type: " + type)).build();
+        }
+
+        FullTextIndex.Result result = fullTextSearch.search(q,
+                type == null || type.isBlank() ? null : type,
+                Math.max(1, Math.min(limit, MAX_LIMIT)));
+
+        SearchResultsResponse response = new SearchResultsResponse();
+        response.results = result.hits().stream().map(SearchHitRepresentation::from).toList();
+        response.totalMatches = result.total();
+        return Response.ok(response).build();
+    }
+}
@@ -3,12 +3,27 @@ package org.acme.resource;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import org.acme.bulk.BulkService;
+import org.acme.bulk.CatalogExport;
+import org.acme.bulk.CatalogImport;
+import org.acme.cache.RepresentationCache;
+import org.acme.dto.SearchCharacterResponse;
 import org.acme.dto.SearchTechniqueResponse;
 import org.acme.dto.TechniqueRequest;
+import org.acme.entity.Character;
 import org.acme.entity.Technique;
 import org.acme.idempotency.IdempotencyService;
+import org.acme.idempotency.SkipIdempotency;
+import org.acme.pagination.KeysetPage;
+import org.acme.pagination.PageResult;
+import org.acme.pagination.Paginator;
+import org.acme.search.FullTextSearch;
+import org.acme.search.NameSearch;
+import org.acme.search.TextNormalizer;
 import org.acme.representation.CharacterRepresentation;
 import org.acme.representation.TechniqueRepresentation;
 
@@ -23,8 +38,12 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.jboss.resteasy.reactive.ResponseHeader;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,7 +53,32 @@ import java.util.Set;
 @Consumes(MediaType.APPLICATION_JSON)
 public class TechniqueResource {
 
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    BulkService bulkService;
+
+    @Inject
+    CatalogExport catalogExport;
+
+    @Inject
+    CatalogImport catalogImport;
+
+    @Inject
+    Paginator paginator;
+
+    @Inject
+    NameSearch nameSearch;
+
+    @Inject
+    FullTextSearch fullTextSearch;
+
+    @Inject
+    RepresentationCache representationCache;
+
     @GET
+    @RunOnVirtualThread
     @Operation(summary = "Lista todas as técnicas com paginação",
             description = "Retorna uma lista paginada de técnicas")
     @APIResponse(
@@ -55,11 +99,23 @@ public class TechniqueResource {
                          @QueryParam("sort") @DefaultValue("id") String sort,
 
                          @Parameter(description = "Direção da ordenação (asc/desc)")
-                         @QueryParam("direction") @DefaultValue("asc") String direction
+                         @QueryParam("direction") @DefaultValue("asc") String direction,
+
+                         @Parameter(description = "Cursor da paginação keyset (vazio para a primeira página); substitui page")
+                         @QueryParam("cursor") String cursor,
+
+                         @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+                         @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+
+                         @Context UriInfo uriInfo
     ) {
         Set<String> allowed = Set.of("id", "name");
         if (!allowed.contains(sort)) sort = "id";
 
+        if (uriInfo.getQueryParameters().containsKey("cursor")) {
+            return cursorPage(null, cursor, sort, direction, size, "/techniques");
+        }
+
         Sort sortObj = Sort.by(
                 sort,
                 "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
@@ -68,19 +124,21 @@ public class TechniqueResource {
         int effectivePage = page <= 1 ? 0 : page - 1;
 
         PanacheQuery<Technique> query = Technique.findAll(sortObj);
-        List<TechniqueRepresentation> techniques = query.page(effectivePage, size)
-                .list()
-                .stream()
-                .map(TechniqueRepresentation::from)
+        PageResult<Technique> result = paginator.page(query, effectivePage, size, includeTotal, "techniques");
+        List<Technique> pageItems = result.items();
+        Map<Long, List<Long>> userIds = Technique.userIdsByTechnique(pageItems.stream().map(e -> e.id).toList());
+        List<TechniqueRepresentation> techniques = pageItems.stream()
+                .map(e -> TechniqueRepresentation.from(e, userIds.get(e.id)))
                 .toList();
 
         SearchTechniqueResponse response = new SearchTechniqueResponse();
         response.techniques = techniques;
-        response.totalTechniques = query.count();
-        response.totalPages = query.pageCount();
-        response.hasMore = (effectivePage + 1) < query.pageCount();
+        response.totalTechniques = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
         response.nextPage = response.hasMore
                 ? "/techniques?page=" + (page + 1) + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                        + (includeTotal ? "" : "&includeTotal=false")
                 : "";
 
         return Response.ok(response).build();
@@ -95,18 +153,25 @@ public class TechniqueResource {
             @APIResponse(responseCode = "200", description = "Técnica encontrada"),
             @APIResponse(responseCode = "404", description = "Técnica não encontrada")
     })
-    public Response getById(@Parameter(description = "ID da técnica", required = true)
-                            @PathParam("id") Long id) {
-
-        Technique t = Technique.findById(id);
-        if (t == null) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(Map.of("error", "Technique not found")).build();
-        }
-        return Response.ok(TechniqueRepresentation.from(t)).build();
+    public Uni<Response> getById(@Parameter(description = "ID da técnica", required = true)
+                                 @PathParam("id") Long id) {
+        // retorna Uni: roda no event loop e só um miss do cache ocupa uma thread de worker
+        return representationCache.get(Technique.class, id, () -> {
+            Technique t = Technique.findById(id);
+            return t != null ? TechniqueRepresentation.from(t) : null;
+        }).map(cached -> {
+            if (cached == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(Map.of("error", "Technique not found")).build();
+            }
+            return Response.ok(cached.body(), MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.ETAG, cached.etag())
+                    .build();
+        });
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/search")
     @Operation(
             summary = "Busca técnicas por nome",
@@ -134,11 +199,23 @@ public class TechniqueResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Tamanho da página")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Cursor da paginação keyset (vazio para a primeira página); substitui page")
+            @QueryParam("cursor") String cursor,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+
+            @Context UriInfo uriInfo
     ) {
         Set<String> allowed = Set.of("id", "name");
         if (!allowed.contains(sort)) sort = "id";
 
+        if (uriInfo.getQueryParameters().containsKey("cursor")) {
+            return cursorPage(q, cursor, sort, direction, size, "/techniques/search");
+        }
+
         Sort sortObj = Sort.by(
                 sort,
                 "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
@@ -146,30 +223,38 @@ public class TechniqueResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        PanacheQuery<Technique> query = (q == null || q.isBlank())
-                ? Technique.findAll(sortObj)
-                : Technique.find("lower(name) like ?1", sortObj, "%" + q.toLowerCase() + "%");
+        PanacheQuery<Technique> query;
+        if (q == null || q.isBlank()) {
+            query = Technique.findAll(sortObj);
+        } else {
+            NameSearch.Filter filter = nameSearch.filter(Technique.class, q);
+            query = Technique.find(filter.predicate(), sortObj, filter.parameters());
+        }
 
-        List<TechniqueRepresentation> techniques = query.page(effectivePage, size)
-                .list()
-                .stream()
-                .map(TechniqueRepresentation::from)
+        PageResult<Technique> result = paginator.page(query, effectivePage, size, includeTotal,
+                Paginator.countKey("techniques", q));
+        List<Technique> pageItems = result.items();
+        Map<Long, List<Long>> userIds = Technique.userIdsByTechnique(pageItems.stream().map(e -> e.id).toList());
+        List<TechniqueRepresentation> techniques = pageItems.stream()
+                .map(e -> TechniqueRepresentation.from(e, userIds.get(e.id)))
                 .toList();
 
         SearchTechniqueResponse response = new SearchTechniqueResponse();
         response.techniques = techniques;
-        response.totalTechniques = query.count();
-        response.totalPages = query.pageCount();
-        response.hasMore = (effectivePage + 1) < query.pageCount();
+        response.totalTechniques = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
         response.nextPage = response.hasMore
-                ? "/techniques/search?q=" + (q != null ? q : "") + "&page=" + (page + 1)
+                ? "/techniques/search?q=" + URLEncoder.encode(q != null ? q : "", StandardCharsets.UTF_8) + "&page=" + (page + 1)
                 + "&size=" + size + "&sort=" + sort + "&direction=" + direction
+                        + (includeTotal ? "" : "&includeTotal=false")
                 : "";
 
         return Response.ok(response).build();
     }
 
     @POST
+    @RunOnVirtualThread
     @Transactional
     @Operation(summary = "Cria uma nova técnica",
             description = "Cria e persiste uma técnica com as informações fornecidas"
@@ -190,12 +275,14 @@ public class TechniqueResource {
     public Response create(@Valid TechniqueRequest input,
                            @Context UriInfo uriInfo) {
 
+        idempotencyService.reserve();
+
         if (input.name == null || input.name.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(Map.of("error", "Technique name is required")).build();
         }
 
-        Technique existing = Technique.find("lower(name)", input.name.toLowerCase()).firstResult();
+        Technique existing = Technique.find("normalizedName", TextNormalizer.normalize(input.name)).firstResult();
         if (existing != null) {
             return Response.status(Response.Status.CONFLICT)
                     .entity(Map.of("error", "Technique with this name already exists")).build();
@@ -207,11 +294,78 @@ public class TechniqueResource {
         );
         entity.persist();
 
+        nameSearch.index(Technique.class, entity.id, entity.name);
+        fullTextSearch.index(Technique.class, entity.id, entity.name, entity.description);
+        paginator.invalidateCounts();
+
         URI uri = uriInfo.getAbsolutePathBuilder().path(String.valueOf(entity.id)).build();
         return Response.created(uri).entity(TechniqueRepresentation.from(entity)).build();
     }
 
+    @POST
+    @RunOnVirtualThread
+    @Path("/batch")
+    @Transactional
+    @Consumes({MediaType.APPLICATION_JSON, BulkService.NDJSON})
+    @Operation(summary = "Cria ou atualiza técnicas em lote",
+            description = "Aceita um array JSON ou NDJSON (uma técnica por linha). Com mode=upsert, a técnica de mesmo nome é atualizada"
+    )
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "Lote processado; o resultado de cada item vem em results"),
+            @APIResponse(responseCode = "400", description = "Corpo ou modo inválido"),
+            @APIResponse(responseCode = "413", description = "Lote acima do limite de itens")
+    })
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(type = SchemaType.ARRAY, implementation = TechniqueRequest.class)
+            )
+    )
+    public Response batch(InputStream body,
+                          @Parameter(description = "create (padrão) ou upsert") @QueryParam("mode") @DefaultValue("create") String mode) {
+
+        idempotencyService.reserve();
+
+        BulkService.Mode bulkMode = BulkService.Mode.parse(mode);
+        return Response.ok(bulkService.techniques(bulkService.read(body, TechniqueRequest.class), bulkMode)).build();
+    }
+
+    @GET
+    @RunOnVirtualThread
+    @Path("/export")
+    @Produces(BulkService.NDJSON)
+    @Operation(summary = "Exporta todas as técnicas",
+            description = "NDJSON com uma representação por linha, em ordem de id, enviado enquanto é lido do banco"
+    )
+    @APIResponse(responseCode = "200", description = "Catálogo completo em NDJSON")
+    @ResponseHeader(name = "Content-Disposition", value = "attachment; filename=\"techniques.ndjson\"")
+    public StreamingOutput export() {
+        return out -> catalogExport.techniques(out);
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @Path("/import")
+    @SkipIdempotency
+    @Consumes(BulkService.NDJSON)
+    @Produces(BulkService.NDJSON)
+    @Operation(summary = "Importa técnicas de um arquivo NDJSON",
+            description = "O corpo é lido enquanto chega e gravado em blocos, cada um na sua transação. A resposta traz, em NDJSON, os erros de cada linha, o progresso após cada bloco e o resumo final"
+    )
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "Importação processada; erros por linha e progresso no corpo"),
+            @APIResponse(responseCode = "400", description = "Modo inválido")
+    })
+    public StreamingOutput importNdjson(InputStream body,
+                                        @Parameter(description = "create (padrão) ou upsert") @QueryParam("mode") @DefaultValue("create") String mode) {
+
+        BulkService.Mode importMode = BulkService.Mode.parse(mode);
+        return out -> catalogImport.techniques(body, out, importMode);
+    }
+
     @PUT
+    @RunOnVirtualThread
     @Path("{id}")
     @Transactional
     @Operation(summary = "Atualiza uma técnica existente",
@@ -244,19 +398,29 @@ public class TechniqueResource {
                     .entity(Map.of("error", "Technique name is required")).build();
         }
 
-        Technique existing = Technique.find("lower(name)", input.name.toLowerCase()).firstResult();
+        Technique existing = Technique.find("normalizedName", TextNormalizer.normalize(input.name)).firstResult();
         if (existing != null && !existing.id.equals(id)) {
             return Response.status(Response.Status.CONFLICT)
                     .entity(Map.of("error", "Technique with this name already exists")).build();
         }
 
+        representationCache.evict(Technique.class, id);
+        if (!entity.name.equals(input.name)) {
+            // o nome da técnica aparece na representação de cada usuário
+            representationCache.evict(Character.class, Technique.userIds(id));
+        }
+
         entity.name = input.name;
         entity.description = input.description != null ? input.description : "";
 
+        nameSearch.index(Technique.class, entity.id, entity.name);
+        fullTextSearch.index(Technique.class, entity.id, entity.name, entity.description);
+        paginator.invalidateCounts();
         return Response.ok(TechniqueRepresentation.from(entity)).build();
     }
 
     @DELETE
+    @RunOnVirtualThread
     @Path("/{id}")
     @Transactional
     @Operation(summary = "Remove uma técnica",
@@ -274,15 +438,22 @@ public class TechniqueResource {
             return Response.status(Response.Status.NOT_FOUND).entity(Map.of("error", "Technique not found")).build();
         }
 
+        representationCache.evict(Technique.class, id);
+        representationCache.evict(Character.class, entity.users.stream().map(u -> u.id).toList());
+
         // limpar associações
         entity.users.forEach(u -> u.techniques.remove(entity));
         entity.users.clear();
 
         entity.delete();
+        nameSearch.remove(Technique.class, id);
+        fullTextSearch.remove(Technique.class, id);
+        paginator.invalidateCounts();
         return Response.noContent().build();
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/{id}/users")
     @Operation(summary = "Lista usuários de uma técnica",
             description = "Retorna os personagens que possuem essa técnica, com paginação"
@@ -292,7 +463,7 @@ public class TechniqueResource {
             description = "Lista de personagens retornada com sucesso",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = CharacterRepresentation.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = SearchCharacterResponse.class)
             )
     )
     @APIResponse(responseCode = "404", description = "Técnica não encontrada")
@@ -304,7 +475,10 @@ public class TechniqueResource {
             @QueryParam("page") @DefaultValue("1") int page,
 
             @Parameter(description = "Quantidade de registros por página")
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+
+            @Parameter(description = "Inclui totalizadores na resposta (false dispensa o COUNT)")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal
     ) {
         Technique t = Technique.findById(id);
         if (t == null) {
@@ -314,12 +488,50 @@ public class TechniqueResource {
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        List<CharacterRepresentation> users = t.users.stream()
-                .skip((long) effectivePage * size)
-                .limit(size)
+        // consulta paginada no banco em vez de inicializar a coleção inteira
+        PanacheQuery<Character> query = Character.withSummaryGraph(Character.find(
+                "select c from Character c join c.techniques t where t.id = ?1 order by c.id", id));
+        PageResult<Character> result = paginator.page(query, effectivePage, size, includeTotal,
+                "techniques:" + id + ":users");
+        List<CharacterRepresentation> users = result.items()
+                .stream()
                 .map(CharacterRepresentation::from)
                 .toList();
 
-        return Response.ok(users).build();
+        SearchCharacterResponse response = new SearchCharacterResponse();
+        response.characters = users;
+        response.totalCharacters = result.total();
+        response.totalPages = result.totalPages();
+        response.hasMore = result.hasMore();
+        response.nextPage = response.hasMore
+                ? "/techniques/" + id + "/users?page=" + (page + 1) + "&size=" + size
+                        + (includeTotal ? "" : "&includeTotal=false")
+                : "";
+
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Modo keyset de {@code list}/{@code search}: a consulta fica em {@link Paginator#seek};
+     * aqui só o valor de ordenação guardado no cursor e a montagem da resposta.
+     */
+    private Response cursorPage(String q, String cursor, String sort, String direction, int size, String path) {
+        NameSearch.Filter filter = q != null && !q.isBlank() ? nameSearch.filter(Technique.class, q) : null;
+        KeysetPage<Technique> page = paginator.seek(
+                (query, order, params) -> Technique.find(query, order, params),
+                filter, cursor, sort, direction, size,
+                e -> "name".equals(sort) ? e.name : null,
+                v -> v);
+
+        SearchTechniqueResponse response = new SearchTechniqueResponse();
+        Map<Long, List<Long>> userIds = Technique.userIdsByTechnique(page.items().stream().map(e -> e.id).toList());
+        response.techniques = page.items().stream()
+                .map(e -> TechniqueRepresentation.from(e, userIds.get(e.id)))
+                .toList();
+        response.hasMore = page.hasMore();
+        response.nextCursor = page.nextCursor();
+        response.nextPage = page.nextPage(path, q);
+
+        return Response.ok(response).build();
     }
 }
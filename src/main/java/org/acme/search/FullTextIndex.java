@@ -0,0 +1,163 @@
+package org.acme.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória com ranking BM25. Cada documento é identificado por
+ * tipo + id da entidade e guarda o título para que os resultados não precisem do banco.
+ * Leituras concorrentes compartilham o read lock; inclusões e remoções usam o write lock.
+ */
+public class FullTextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // peso do nome em relação ao texto descritivo
+    private static final int TITLE_BOOST = 2;
+
+    public record Hit(String type, long id, String title, double score) {
+    }
+
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    private record Doc(String type, long id, String title, int length, Map<String, Integer> terms) {
+    }
+
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final List<Integer> freeIds = new ArrayList<>();
+    private long totalLength;
+    private int docCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(String type, long id, String title, String body) {
+        Map<String, Integer> terms = new HashMap<>();
+        int length = 0;
+        for (String term : Tokenizer.tokenize(title)) {
+            terms.merge(term, TITLE_BOOST, Integer::sum);
+            length += TITLE_BOOST;
+        }
+        for (String term : Tokenizer.tokenize(body)) {
+            terms.merge(term, 1, Integer::sum);
+            length++;
+        }
+        Doc doc = new Doc(type, id, title, length, terms);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key(type, id));
+
+            int docId;
+            if (freeIds.isEmpty()) {
+                docId = docs.size();
+                docs.add(doc);
+            } else {
+                docId = freeIds.remove(freeIds.size() - 1);
+                docs.set(docId, doc);
+            }
+            docIds.put(key(type, id), docId);
+            terms.forEach((term, tf) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(docId, tf));
+            totalLength += length;
+            docCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String type, long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Os {@code limit} documentos mais relevantes para {@code query}, opcionalmente
+     * restritos a um tipo, junto com o número de documentos que casaram com algum termo.
+     */
+    public Result search(String query, String typeFilter, int limit) {
+        List<String> terms = Tokenizer.tokenize(query);
+        List<Hit> hits = new ArrayList<>();
+        if (terms.isEmpty() || limit <= 0) return new Result(hits, 0);
+
+        lock.readLock().lock();
+        try {
+            if (docCount == 0) return new Result(hits, 0);
+            double avgLength = (double) totalLength / docCount;
+
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms.stream().distinct().toList()) {
+                Map<Integer, Integer> posting = postings.get(term);
+                if (posting == null) continue;
+
+                int df = posting.size();
+                double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+                posting.forEach((docId, tf) -> {
+                    Doc doc = docs.get(docId);
+                    if (typeFilter != null && !typeFilter.equals(doc.type())) return;
+                    double norm = tf + K1 * (1 - B + B * doc.length() / avgLength);
+                    scores.merge(docId, idf * tf * (K1 + 1) / norm, Double::sum);
+                });
+            }
+            // top-k com heap mínimo: O(n log k) em vez de ordenar todos os candidatos
+            PriorityQueue<Map.Entry<Integer, Double>> top =
+                    new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+            for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) top.poll();
+            }
+
+            top.stream()
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
+                    .forEach(e -> {
+                        Doc doc = docs.get(e.getKey());
+                        hits.add(new Hit(doc.type(), doc.id(), doc.title(), e.getValue()));
+                    });
+            return new Result(hits, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(String key) {
+        Integer docId = docIds.remove(key);
+        if (docId == null) return;
+
+        Doc doc = docs.get(docId);
+        doc.terms().keySet().forEach(term -> {
+            Map<Integer, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(docId);
+                if (posting.isEmpty()) postings.remove(term);
+            }
+        });
+        docs.set(docId, null);
+        freeIds.add(docId);
+        totalLength -= doc.length();
+        docCount--;
+    }
+
+    private static String key(String type, long id) {
+        return type + ":" + id;
+    }
+}
@@ -0,0 +1,94 @@
+package org.acme.search;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.acme.entity.Character;
+import org.acme.entity.Clan;
+import org.acme.entity.DomainExpansion;
+import org.acme.entity.Technique;
+import org.acme.transaction.AfterCommit;
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+
+/**
+ * Busca textual (BM25) sobre nomes e descrições das quatro entidades. O índice é montado
+ * na subida da aplicação e atualizado pelos endpoints de escrita depois do commit, então
+ * as consultas de {@code /search} não tocam o banco.
+ */
+@ApplicationScoped
+public class FullTextSearch {
+
+    private static final Logger LOG = Logger.getLogger(FullTextSearch.class);
+
+    /**
+     * Tipo exposto na API e caminho base do recurso de cada entidade.
+     */
+    public static final Map<Class<?>, String> TYPES = Map.of(
+            Character.class, "character",
+            Clan.class, "clan",
+            Technique.class, "technique",
+            DomainExpansion.class, "domain-expansion"
+    );
+
+    private static final Map<String, String> PATHS = Map.of(
+            "character", "/characters",
+            "clan", "/clans",
+            "technique", "/techniques",
+            "domain-expansion", "/domain-expansions"
+    );
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    private final FullTextIndex index = new FullTextIndex();
+
+    @Transactional
+    void load(@Observes StartupEvent event) {
+        em.createQuery("select c.id, c.name from Character c", Object[].class)
+                .getResultStream()
+                .forEach(row -> index.put("character", (Long) row[0], (String) row[1], null));
+        em.createQuery("select c.id, c.name, c.description from Clan c", Object[].class)
+                .getResultStream()
+                .forEach(row -> index.put("clan", (Long) row[0], (String) row[1], (String) row[2]));
+        em.createQuery("select t.id, t.name, t.description from Technique t", Object[].class)
+                .getResultStream()
+                .forEach(row -> index.put("technique", (Long) row[0], (String) row[1], (String) row[2]));
+        em.createQuery("select d.id, d.name, d.effect from DomainExpansion d", Object[].class)
+                .getResultStream()
+                .forEach(row -> index.put("domain-expansion", (Long) row[0], (String) row[1], (String) row[2]));
+        LOG.debugf("Full-text index loaded with %d documents", index.size());
+    }
+
+    public FullTextIndex.Result search(String q, String type, int limit) {
+        return index.search(q, type, limit);
+    }
+
+    public static boolean isType(String type) {
+        return PATHS.containsKey(type);
+    }
+
+    public static String path(String type, long id) {
+        return PATHS.get(type) + "/" + id;
+    }
+
+    /**
+     * Atualiza o documento depois do commit da transação corrente.
+     */
+    public void index(Class<?> type, Long id, String name, String text) {
+        String docType = TYPES.get(type);
+        afterCommit.run(() -> index.put(docType, id, name, text));
+    }
+
+    public void remove(Class<?> type, Long id) {
+        String docType = TYPES.get(type);
+        afterCommit.run(() -> index.remove(docType, id));
+    }
+}
@@ -0,0 +1,112 @@
+package org.acme.search;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.acme.entity.Character;
+import org.acme.entity.Clan;
+import org.acme.entity.DomainExpansion;
+import org.acme.entity.Technique;
+import org.acme.transaction.AfterCommit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Busca por nome das quatro entidades. Termos com pelo menos um trigrama são resolvidos no
+ * {@link TrigramIndex} em memória e viram um {@code id in (...)} pela chave primária; termos
+ * curtos (ou muito genéricos) caem no {@code like} sobre a coluna normalizada.
+ * <p>
+ * O índice é carregado na subida e depois só vê as escritas feitas por esta instância. Linhas
+ * gravadas por outra réplica, por SQL direto ou por uma restauração do banco ficam fora da busca
+ * até o próximo restart. Com mais de uma instância, desligue {@code kokusen.search.name-index.enabled}
+ * para que toda busca vá ao {@code like} no banco.
+ */
+@ApplicationScoped
+public class NameSearch {
+
+    private static final Logger LOG = Logger.getLogger(NameSearch.class);
+
+    private static final Map<Class<?>, String> ENTITY_NAMES = Map.of(
+            Character.class, "Character",
+            Clan.class, "Clan",
+            Technique.class, "Technique",
+            DomainExpansion.class, "DomainExpansion"
+    );
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    @ConfigProperty(name = "kokusen.search.max-index-candidates", defaultValue = "1000")
+    int maxCandidates;
+
+    @ConfigProperty(name = "kokusen.search.name-index.enabled", defaultValue = "true")
+    boolean indexEnabled;
+
+    private final Map<Class<?>, TrigramIndex> indexes = Map.of(
+            Character.class, new TrigramIndex(),
+            Clan.class, new TrigramIndex(),
+            Technique.class, new TrigramIndex(),
+            DomainExpansion.class, new TrigramIndex()
+    );
+
+    /**
+     * Predicado JPQL (parâmetros nomeados) pronto para compor a consulta de busca.
+     */
+    public record Filter(String predicate, Map<String, Object> parameters) {
+    }
+
+    @Transactional
+    void load(@Observes StartupEvent event) {
+        if (!indexEnabled) {
+            LOG.info("Name index disabled, name search uses the normalized column");
+            return;
+        }
+        ENTITY_NAMES.forEach((type, entityName) -> {
+            TrigramIndex index = indexes.get(type);
+            em.createQuery("select e.id, e.normalizedName from " + entityName + " e", Object[].class)
+                    .getResultStream()
+                    .forEach(row -> index.put((Long) row[0], (String) row[1]));
+            LOG.debugf("Name index for %s loaded with %d entries", entityName, index.size());
+        });
+    }
+
+    public Filter filter(Class<?> type, String q) {
+        String normalized = TextNormalizer.normalize(q);
+        Set<Long> ids = indexEnabled ? indexes.get(type).search(normalized) : null;
+
+        if (ids != null && ids.isEmpty()) {
+            return new Filter("1 = 0", Map.of());
+        }
+        if (ids != null && ids.size() <= maxCandidates) {
+            // o like descarta candidatos cujo nome mudou num commit que o índice ainda não aplicou;
+            // só evita falsos positivos: uma linha que o índice nunca viu não aparece
+            return new Filter("id in :nameIds and normalizedName like :nameQuery",
+                    Map.of("nameIds", List.copyOf(ids), "nameQuery", "%" + normalized + "%"));
+        }
+        return new Filter("normalizedName like :nameQuery", Map.of("nameQuery", "%" + normalized + "%"));
+    }
+
+    /**
+     * Atualiza o índice depois do commit da transação corrente.
+     */
+    public void index(Class<?> type, Long id, String name) {
+        if (!indexEnabled) return;
+        String normalized = TextNormalizer.normalize(name);
+        afterCommit.run(() -> indexes.get(type).put(id, normalized));
+    }
+
+    public void remove(Class<?> type, Long id) {
+        if (!indexEnabled) return;
+        afterCommit.run(() -> indexes.get(type).remove(id));
+    }
+}
@@ -0,0 +1,22 @@
+package org.acme.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de texto usada nas buscas: minúsculas, sem acentos e sem espaços nas pontas,
+ * para que "Sem Clã", "sem cla" e " SEM CLÃ " sejam equivalentes.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {}
+
+    public static String normalize(String text) {
+        if (text == null) return null;
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+}
@@ -0,0 +1,42 @@
+package org.acme.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Quebra texto em termos para o índice textual: normaliza com {@link TextNormalizer}
+ * (então "Expansão" e "expansao" viram o mesmo termo), separa em tudo que não é letra
+ * ou dígito e descarta termos de uma letra e stopwords comuns em português e inglês.
+ */
+public final class Tokenizer {
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "de", "da", "do", "das", "dos", "e", "em", "no", "na",
+            "nos", "nas", "por", "para", "com", "que", "se", "ao", "aos", "sua", "seu", "suas", "seus",
+            "the", "of", "and", "to", "in", "on", "for", "with"
+    );
+
+    private Tokenizer() {}
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        String normalized = TextNormalizer.normalize(text);
+        if (normalized == null || normalized.isEmpty()) return terms;
+
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && java.lang.Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = normalized.substring(start, i);
+                if (term.length() > 1 && !STOPWORDS.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,93 @@
+package org.acme.search;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice invertido de trigramas sobre nomes normalizados. Responde buscas por substring
+ * (infix) percorrendo só a menor lista de ids entre os trigramas do termo e confirmando
+ * cada candidato contra o nome guardado.
+ */
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    // escritas serializadas com um lock em vez de synchronized: uma virtual thread esperando um
+    // monitor prende a thread carregadora (JDK 21), esperando um ReentrantLock não
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public void put(long id, String normalizedName) {
+        writeLock.lock();
+        try {
+            remove(id);
+            if (normalizedName == null) return;
+
+            names.put(id, normalizedName);
+            for (String gram : grams(normalizedName)) {
+                postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(long id) {
+        writeLock.lock();
+        try {
+            String old = names.remove(id);
+            if (old == null) return;
+
+            for (String gram : grams(old)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) postings.remove(gram);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ids cujos nomes contêm {@code normalizedQuery}. Termos menores que um trigrama não
+     * podem ser atendidos pelo índice e devolvem {@code null}.
+     */
+    public Set<Long> search(String normalizedQuery) {
+        if (normalizedQuery == null || normalizedQuery.length() < GRAM) return null;
+
+        Set<Long> smallest = null;
+        for (String gram : grams(normalizedQuery)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) return Set.of();
+            if (smallest == null || ids.size() < smallest.size()) smallest = ids;
+        }
+
+        Set<Long> result = new HashSet<>();
+        for (Long id : smallest) {
+            String name = names.get(id);
+            if (name != null && name.contains(normalizedQuery)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
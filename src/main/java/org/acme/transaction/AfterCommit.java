@@ -0,0 +1,47 @@
+package org.acme.transaction;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Adia efeitos colaterais em memória (índices, caches) até o commit da transação corrente,
+ * para que um rollback não deixe estado que o banco não tem. Sem transação (ou com ela já confirmada)
+ * executa na hora; numa transação marcada para rollback a ação é descartada.
+ */
+@ApplicationScoped
+public class AfterCommit {
+
+    @Inject
+    TransactionSynchronizationRegistry registry;
+
+    public void run(Runnable action) {
+        switch (registry.getTransactionStatus()) {
+            // COMMITTED: chamada de dentro de outra ação pós-commit, os dados já estão no banco
+            case Status.STATUS_NO_TRANSACTION, Status.STATUS_COMMITTED -> {
+                action.run();
+                return;
+            }
+            case Status.STATUS_MARKED_ROLLBACK, Status.STATUS_ROLLING_BACK, Status.STATUS_ROLLEDBACK -> {
+                return;
+            }
+            default -> {
+            }
+        }
+
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -1,29 +1,29 @@
 -- ==========================
 -- Clans
 -- ==========================
-INSERT INTO CLAN (ID, NAME, DESCRIPTION) VALUES (1, 'Zenin', 'Clã tradicional do mundo jujutsu');
-INSERT INTO CLAN (ID, NAME, DESCRIPTION) VALUES (2, 'Gojo', 'Clã com linhagem poderosa');
-INSERT INTO CLAN (ID, NAME, DESCRIPTION) VALUES (3, 'Kamo', 'Clã antigo e especialista em manipulação de sangue');
-INSERT INTO CLAN (ID, NAME, DESCRIPTION) VALUES (4, 'Sem Clã', 'Personagens que não pertencem a nenhum clã');
-INSERT INTO CLAN (ID, NAME, DESCRIPTION) VALUES (5, 'Escola Jujutsu', 'Personagens afiliados à escola Jujutsu');
+INSERT INTO CLAN (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (1, 'Zenin', 'zenin', 'Clã tradicional do mundo jujutsu');
+INSERT INTO CLAN (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (2, 'Gojo', 'gojo', 'Clã com linhagem poderosa');
+INSERT INTO CLAN (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (3, 'Kamo', 'kamo', 'Clã antigo e especialista em manipulação de sangue');
+INSERT INTO CLAN (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (4, 'Sem Clã', 'sem cla', 'Personagens que não pertencem a nenhum clã');
+INSERT INTO CLAN (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (5, 'Escola Jujutsu', 'escola jujutsu', 'Personagens afiliados à escola Jujutsu');
 
 -- ==========================
 -- Techniques
 -- ==========================
-INSERT INTO TECHNIQUE (ID, NAME, DESCRIPTION) VALUES (1, 'Limitless', 'Manipulação do espaço ao infinito');
-INSERT INTO TECHNIQUE (ID, NAME, DESCRIPTION) VALUES (2, 'Ten Shadows', 'Controle de dez shikigamis através de sombras');
-INSERT INTO TECHNIQUE (ID, NAME, DESCRIPTION) VALUES (3, 'Blood Manipulation', 'Controle avançado do sangue do usuário');
-INSERT INTO TECHNIQUE (ID, NAME, DESCRIPTION) VALUES (4, 'Heavenly Restriction', 'Condição que concede força física imensa em troca de energia amaldiçoada');
+INSERT INTO TECHNIQUE (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (1, 'Limitless', 'limitless', 'Manipulação do espaço ao infinito');
+INSERT INTO TECHNIQUE (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (2, 'Ten Shadows', 'ten shadows', 'Controle de dez shikigamis através de sombras');
+INSERT INTO TECHNIQUE (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (3, 'Blood Manipulation', 'blood manipulation', 'Controle avançado do sangue do usuário');
+INSERT INTO TECHNIQUE (ID, NAME, NAME_NORMALIZED, DESCRIPTION) VALUES (4, 'Heavenly Restriction', 'heavenly restriction', 'Condição que concede força física imensa em troca de energia amaldiçoada');
 
 -- ==========================
 -- Characters (sorcerer table)
 -- ==========================
-INSERT INTO SORCERER (ID, NAME, RANK, CLAN_ID) VALUES (1, 'Satoru Gojo', 'SPECIAL_GRADE', 2);
-INSERT INTO SORCERER (ID, NAME, RANK, CLAN_ID) VALUES (2, 'Maki Zenin', 'GRADE_4', 1);
-INSERT INTO SORCERER (ID, NAME, RANK, CLAN_ID) VALUES (3, 'Megumi Fushiguro', 'GRADE_2', NULL);
-INSERT INTO SORCERER (ID, NAME, RANK, CLAN_ID) VALUES (4, 'Noritoshi Kamo', 'GRADE_1', 3);
-INSERT INTO SORCERER (ID, NAME, RANK, CLAN_ID) VALUES (5, 'Toji Fushiguro', 'GRADE_1', 1); -- sem técnica, sem expansão
-INSERT INTO SORCERER (ID, NAME, RANK) VALUES (6, 'Random Civilian', 'NON_SORCERER'); -- exemplo de não feiticeiro
+INSERT INTO SORCERER (ID, NAME, NAME_NORMALIZED, RANK, CLAN_ID) VALUES (1, 'Satoru Gojo', 'satoru gojo', 'SPECIAL_GRADE', 2);
+INSERT INTO SORCERER (ID, NAME, NAME_NORMALIZED, RANK, CLAN_ID) VALUES (2, 'Maki Zenin', 'maki zenin', 'GRADE_4', 1);
+INSERT INTO SORCERER (ID, NAME, NAME_NORMALIZED, RANK, CLAN_ID) VALUES (3, 'Megumi Fushiguro', 'megumi fushiguro', 'GRADE_2', NULL);
+INSERT INTO SORCERER (ID, NAME, NAME_NORMALIZED, RANK, CLAN_ID) VALUES (4, 'Noritoshi Kamo', 'noritoshi kamo', 'GRADE_1', 3);
+INSERT INTO SORCERER (ID, NAME, NAME_NORMALIZED, RANK, CLAN_ID) VALUES (5, 'Toji Fushiguro', 'toji fushiguro', 'GRADE_1', 1); -- sem técnica, sem expansão
+INSERT INTO SORCERER (ID, NAME, NAME_NORMALIZED, RANK) VALUES (6, 'Random Civilian', 'random civilian', 'NON_SORCERER'); -- exemplo de não feiticeiro
 
 -- ==========================
 -- Relation character_technique (many-to-many join table)
@@ -37,14 +37,14 @@ INSERT INTO CHARACTER_TECHNIQUE (CHARACTER_ID, TECHNIQUE_ID) VALUES (5, 4);
 -- ==========================
 -- Domain Expansions (one-to-one, owner references character id)
 -- ==========================
-INSERT INTO DOMAIN_EXPANSION (ID, NAME, EFFECT, OWNER_ID)
-VALUES (1, 'Unlimited Void', 'Expansão de domínio de Gojo', 1);
+INSERT INTO DOMAIN_EXPANSION (ID, NAME, NAME_NORMALIZED, EFFECT, OWNER_ID)
+VALUES (1, 'Unlimited Void', 'unlimited void', 'Expansão de domínio de Gojo', 1);
 
-INSERT INTO DOMAIN_EXPANSION (ID, NAME, EFFECT, OWNER_ID)
-VALUES (2, 'Chimera Shadow Garden', 'Domínio de Megumi que amplia o poder das sombras', 3);
+INSERT INTO DOMAIN_EXPANSION (ID, NAME, NAME_NORMALIZED, EFFECT, OWNER_ID)
+VALUES (2, 'Chimera Shadow Garden', 'chimera shadow garden', 'Domínio de Megumi que amplia o poder das sombras', 3);
 
-INSERT INTO DOMAIN_EXPANSION (ID, NAME, EFFECT, OWNER_ID)
-VALUES (3, 'Malevolent Shrine', 'Domínio de Sukuna que aplica o acerto garantido de cortes', NULL);
+INSERT INTO DOMAIN_EXPANSION (ID, NAME, NAME_NORMALIZED, EFFECT, OWNER_ID)
+VALUES (3, 'Malevolent Shrine', 'malevolent shrine', 'Domínio de Sukuna que aplica o acerto garantido de cortes', NULL);
 
 ALTER SEQUENCE sorcerer_SEQ RESTART WITH 7;
 ALTER SEQUENCE clan_SEQ RESTART WITH 6;
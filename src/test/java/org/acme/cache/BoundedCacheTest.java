@@ -0,0 +1,58 @@
+package org.acme.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoundedCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverEntryOrByteBudget() {
+        BoundedCache<String, String> cache = new BoundedCache<>(3, 10, Duration.ofHours(1), String::length, clock::get);
+        cache.put("a", "aaa");
+        cache.put("b", "bbb");
+        cache.put("c", "ccc");
+        cache.get("a");
+
+        cache.put("d", "dd");
+        assertNull(cache.get("b"));
+        assertEquals("aaa", cache.get("a"));
+
+        cache.put("e", "eeee");
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(2, stats.evictions());
+        assertEquals(3, stats.size());
+        assertEquals(9, stats.bytes());
+        assertNull(cache.get("c"));
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 100, Duration.ofSeconds(5), String::length, clock::get);
+        cache.put("k", "value");
+        assertEquals("value", cache.get("k"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertNull(cache.get("k"));
+
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0, stats.bytes());
+    }
+
+    @Test
+    void skipsValuesLargerThanTheWholeBudget() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 4, Duration.ofSeconds(5), String::length, clock::get);
+        cache.put("k", "too large");
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.stats().size());
+    }
+}
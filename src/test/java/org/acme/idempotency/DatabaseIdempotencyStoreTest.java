@@ -0,0 +1,144 @@
+package org.acme.idempotency;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(DatabaseIdempotencyStoreTest.DatabaseStore.class)
+class DatabaseIdempotencyStoreTest {
+
+    public static class DatabaseStore implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "kokusen.idempotency.store", "database",
+                    "kokusen.idempotency.database.sweep-batch-size", "2");
+        }
+    }
+
+    @Inject
+    IdempotencyStore store;
+
+    @Test
+    void replayIsServedFromTheTable() {
+        String body = "{\"name\":\"Clã Persistido\",\"description\":\"no banco\"}";
+        String location = given().contentType("application/json").header("Idempotency-Key", "db-1").body(body)
+                .when().post("/clans")
+                .then().statusCode(201).extract().header("Location");
+
+        IdempotencyRecord record = QuarkusTransaction.requiringNew()
+                .call(() -> IdempotencyRecord.findById("POST /clans db-1"));
+        assertEquals(201, record.status);
+
+        given().contentType("application/json").header("Idempotency-Key", "db-1").body(body)
+                .when().post("/clans")
+                .then().statusCode(201)
+                .header("Location", is(location))
+                .header("Idempotent-Replayed", is("true"));
+    }
+
+    @Test
+    void rolledBackRequestDoesNotKeepTheReservation() {
+        String tooLong = "x".repeat(1500);
+        given().contentType("application/json").header("Idempotency-Key", "db-rollback")
+                .body("{\"name\":\"Clã Rollback\",\"description\":\"" + tooLong + "\"}")
+                .when().post("/clans")
+                .then().statusCode(500);
+
+        assertNull(QuarkusTransaction.requiringNew()
+                .call(() -> IdempotencyRecord.findById("POST /clans db-rollback")));
+
+        given().contentType("application/json").header("Idempotency-Key", "db-rollback")
+                .body("{\"name\":\"Clã Rollback\",\"description\":\"curta\"}")
+                .when().post("/clans")
+                .then().statusCode(201);
+    }
+
+    @Test
+    void reservationHasShortLeaseUntilTheResponseIsSaved() {
+        String key = "POST /clans db-lease";
+        long before = System.currentTimeMillis();
+        QuarkusTransaction.requiringNew().run(() -> store.reserve(key, "f"));
+
+        // transação padrão (60s) + in-flight-wait (10s), não as 24h das respostas
+        IdempotencyRecord pending = QuarkusTransaction.requiringNew().call(() -> IdempotencyRecord.findById(key));
+        assertTrue(pending.expiresAt <= System.currentTimeMillis() + Duration.ofSeconds(70).toMillis());
+
+        store.save(key, new StoredResponse(201, new String[0], new byte[0], false, "f"));
+
+        IdempotencyRecord saved = QuarkusTransaction.requiringNew().call(() -> IdempotencyRecord.findById(key));
+        assertTrue(saved.expiresAt >= before + Duration.ofHours(24).toMillis());
+    }
+
+    @Test
+    void expiredReservationFreesTheKey() {
+        String key = "POST /clans db-abandoned";
+        QuarkusTransaction.requiringNew().run(() -> {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.key = key;
+            record.fingerprint = "f";
+            record.expiresAt = System.currentTimeMillis() - 1;
+            record.persist();
+        });
+
+        assertNull(store.get(key));
+        QuarkusTransaction.requiringNew().run(() -> store.reserve(key, "f"));
+    }
+
+    @Test
+    void sweepDeletesExpiredRowsInBatches() {
+        long now = System.currentTimeMillis();
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (String key : List.of("old-1", "old-2", "old-3", "live")) {
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.key = key;
+                record.fingerprint = "f";
+                record.status = 201;
+                record.expiresAt = key.equals("live") ? now + 60_000 : now - 1;
+                record.persist();
+            }
+        });
+
+        store.sweep();
+
+        assertEquals(List.of("live"), QuarkusTransaction.requiringNew().call(() -> IdempotencyRecord
+                .<IdempotencyRecord>list("key in ?1", List.of("old-1", "old-2", "old-3", "live"))
+                .stream().map(r -> r.key).toList()));
+    }
+
+    @Test
+    void statsCountRowsAtTheSweepNotAtEachRead() {
+        store.sweep();
+        int before = store.stats().size();
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.key = "stats-1";
+            record.fingerprint = "f";
+            record.status = 201;
+            record.body = new byte[100];
+            record.expiresAt = System.currentTimeMillis() + 60_000;
+            record.persist();
+        });
+        assertEquals(before, store.stats().size());
+
+        store.sweep();
+        long rows = QuarkusTransaction.requiringNew().call(() -> IdempotencyRecord.count());
+        assertEquals(rows, store.stats().size());
+        assertTrue(store.stats().bytes() >= 100);
+    }
+}
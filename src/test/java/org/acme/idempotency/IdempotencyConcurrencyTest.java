@@ -0,0 +1,82 @@
+package org.acme.idempotency;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import org.acme.entity.Clan;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class IdempotencyConcurrencyTest {
+
+    private static final int CLIENTS = 16;
+
+    @Test
+    void parallelPostsWithSameKeyCreateOnceAndReplayOriginal() throws Exception {
+        String body = "{\"name\":\"Clã Paralelo\",\"description\":\"criado uma vez\"}";
+
+        List<Response> responses = postInParallel(body, "clan-paralelo-1");
+
+        assertEquals(1, Clan.count("name", "Clã Paralelo"));
+        List<Integer> statuses = responses.stream().map(Response::statusCode).distinct().toList();
+        assertEquals(List.of(201), statuses);
+        assertEquals(1, responses.stream().map(r -> r.header("Location")).collect(Collectors.toSet()).size());
+        assertEquals(CLIENTS - 1, responses.stream().filter(r -> "true".equals(r.header("Idempotent-Replayed"))).count());
+    }
+
+    @Test
+    void parallelIdenticalBodiesWithoutKeyCreateOnce() throws Exception {
+        String body = "{\"name\":\"Clã Sem Chave\",\"description\":\"hash do corpo\"}";
+
+        List<Response> responses = postInParallel(body, null);
+
+        assertEquals(1, Clan.count("name", "Clã Sem Chave"));
+        assertEquals(1, responses.stream().filter(r -> r.statusCode() == 201).count());
+        assertEquals(CLIENTS - 1, responses.stream().filter(r -> r.statusCode() == 409).count());
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() {
+        given().contentType("application/json").header("Idempotency-Key", "clan-reuso")
+                .body("{\"name\":\"Clã Reuso\",\"description\":\"primeiro\"}")
+                .when().post("/clans")
+                .then().statusCode(201);
+
+        given().contentType("application/json").header("Idempotency-Key", "clan-reuso")
+                .body("{\"name\":\"Clã Reuso 2\",\"description\":\"segundo\"}")
+                .when().post("/clans")
+                .then().statusCode(422);
+    }
+
+    private static List<Response> postInParallel(String body, String key) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    var request = given().contentType("application/json").body(body);
+                    if (key != null) request.header("Idempotency-Key", key);
+                    return request.when().post("/clans");
+                }));
+            }
+            start.countDown();
+            List<Response> responses = new ArrayList<>();
+            for (Future<Response> f : futures) responses.add(f.get());
+            return responses;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
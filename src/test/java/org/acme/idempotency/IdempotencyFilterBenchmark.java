@@ -0,0 +1,124 @@
+package org.acme.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caminho de um POST pelo filtro de idempotência: leitura do corpo, chave, reserva e resposta
+ * guardada. {@code legacyFingerprint} repete a leitura antiga ({@code readAllBytes}, cópia para
+ * {@code String}, reencoding e {@code String.format} por byte); {@code streamingFingerprint} usa
+ * {@link RequestBody}. Cada operação usa uma {@code Idempotency-Key} nova, então a reserva e o
+ * armazenamento são os mesmos nos dois casos.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.acme.idempotency.IdempotencyFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class IdempotencyFilterBenchmark {
+
+    private static final int MAX_BODY = 1024 * 1024;
+
+    @Param({"256", "16384"})
+    int bodySize;
+
+    private byte[] body;
+    private byte[] response;
+    private MultivaluedMap<String, Object> headers;
+    private IdempotencyService service;
+    private final AtomicLong keys = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        StringBuilder json = new StringBuilder("{\"name\":\"Clã\",\"description\":\"");
+        while (json.length() < bodySize - 2) json.append("técnica ");
+        body = json.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+        response = "{\"id\":1,\"name\":\"Clã\"}".getBytes(StandardCharsets.UTF_8);
+        headers = new MultivaluedHashMap<>();
+        headers.add("Location", "http://localhost:8080/clans/1");
+
+        service = new IdempotencyService();
+        service.store = new MemoryIdempotencyStore(10_000, 32L * 1024 * 1024, Duration.ofHours(24));
+        service.context = new IdempotencyContext();
+        service.mapper = new ObjectMapper();
+        service.compressAbove = 1024;
+        service.inFlightWait = Duration.ofSeconds(10);
+    }
+
+    @Benchmark
+    public byte[] legacyFingerprint() throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        byte[] bodyBytes = in.readAllBytes();
+        String bodyString = new String(bodyBytes);
+        return postChain(legacyKey(bodyString));
+    }
+
+    @Benchmark
+    public byte[] streamingFingerprint() throws IOException {
+        RequestBody read = RequestBody.read(new ByteArrayInputStream(body), body.length, MAX_BODY);
+        return postChain(read.fingerprint());
+    }
+
+    private byte[] postChain(String fingerprint) {
+        String key = "POST clans " + keys.incrementAndGet();
+        try {
+            IdempotencyService.Claim claim = service.claim(key, fingerprint, true, false);
+            return service.saveResponse(claim, 201, headers, response);
+        } catch (WebApplicationException e) {
+            throw new IllegalStateException("unexpected replay", e);
+        }
+    }
+
+    private static String legacyKey(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(body.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IdempotencyFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
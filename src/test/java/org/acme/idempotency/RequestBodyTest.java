@@ -0,0 +1,81 @@
+package org.acme.idempotency;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestBodyTest {
+
+    // acima da capacidade inicial do buffer, para o caso sem tamanho precisar crescer até o limite
+    private static final int MAX = 1500;
+
+    @Test
+    void readsBodyBelowLimit() throws Exception {
+        byte[] body = body(100);
+
+        assertBody(body, RequestBody.read(new ByteArrayInputStream(body), body.length, MAX));
+        assertBody(body, RequestBody.read(trickle(body), -1, MAX));
+    }
+
+    @Test
+    void acceptsBodyExactlyAtLimit() throws Exception {
+        byte[] body = body(MAX);
+
+        assertBody(body, RequestBody.read(new ByteArrayInputStream(body), body.length, MAX));
+        assertBody(body, RequestBody.read(trickle(body), -1, MAX));
+    }
+
+    @Test
+    void rejectsDeclaredLengthOverLimitWithoutReading() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body(MAX + 1));
+
+        assertTooLarge(() -> RequestBody.read(in, MAX + 1, MAX));
+        assertEquals(MAX + 1, in.available());
+    }
+
+    @Test
+    void rejectsChunkedBodyOneByteOverLimit() {
+        assertTooLarge(() -> RequestBody.read(trickle(body(MAX + 1)), -1, MAX));
+    }
+
+    private static void assertBody(byte[] expected, RequestBody actual) throws Exception {
+        assertArrayEquals(expected, actual.bytes());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(expected)),
+                actual.fingerprint());
+    }
+
+    private static void assertTooLarge(Read read) {
+        WebApplicationException e = assertThrows(WebApplicationException.class, read::run);
+        assertEquals(413, e.getResponse().getStatus());
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'x');
+        return body;
+    }
+
+    // entrega poucos bytes por leitura, como um corpo chunked chegando aos pedaços
+    private static InputStream trickle(byte[] body) {
+        return new ByteArrayInputStream(body) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+    }
+
+    private interface Read {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,56 @@
+package org.acme.pagination;
+
+import io.quarkus.panache.common.Parameters;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripKeepsValueAndId() {
+        // quebra de linha e acento no valor: o separador do cursor não pode cortá-lo
+        String token = KeysetCursor.encode("name", true, "Zen'in\nMaki ã", 42L);
+
+        KeysetCursor cursor = KeysetCursor.decode(token, "name", true);
+
+        assertEquals("(name < :cursorValue or (name = :cursorValue and id < :cursorId))", cursor.predicate());
+        assertEquals(Map.of("cursorValue", "Zen'in\nMaki ã", "cursorId", 42L),
+                cursor.bind(new Parameters(), v -> v).map());
+    }
+
+    @Test
+    void idSortBindsOnlyTheId() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode("id", false, null, 7L), "id", false);
+
+        assertEquals("id > :cursorId", cursor.predicate());
+        assertEquals(Map.of("cursorId", 7L), cursor.bind(new Parameters(), v -> v).map());
+    }
+
+    @Test
+    void emptyCursorIsTheFirstPage() {
+        assertNull(KeysetCursor.decode("", "name", false));
+        assertNull(KeysetCursor.decode(null, "name", false));
+    }
+
+    @Test
+    void cursorOfAnotherSortOrDirectionIsRejected() {
+        String token = KeysetCursor.encode("name", false, "Maki", 2L);
+
+        assertBadRequest(() -> KeysetCursor.decode(token, "rank", false));
+        assertBadRequest(() -> KeysetCursor.decode(token, "name", true));
+        assertBadRequest(() -> KeysetCursor.decode("não-é-base64", "name", false));
+        assertBadRequest(() -> KeysetCursor.decode(KeysetCursor.encode("id", false, null, 1L)
+                .substring(0, 3), "id", false));
+    }
+
+    private static void assertBadRequest(Runnable decode) {
+        WebApplicationException e = assertThrows(WebApplicationException.class, decode::run);
+        assertEquals(400, e.getResponse().getStatus());
+    }
+}
@@ -0,0 +1,165 @@
+package org.acme.pagination;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de uma página de busca ({@code name_normalized like}) numa tabela grande no H2, com as
+ * três formas de obter o total: COUNT duas vezes por requisição (o {@code count()} seguido de
+ * {@code pageCount()} de antes do {@link Paginator}), COUNT pelo cache do {@link Paginator} e
+ * {@code includeTotal=false} (uma linha a mais, sem COUNT). O SELECT da página é o mesmo nos três.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.acme.pagination.PaginatorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginatorBenchmark {
+
+    private static final int SIZE = 10;
+    private static final String FILTER = "%ka%";
+
+    @Param({"200000"})
+    int rows;
+
+    // primeira página e uma página funda: o OFFSET cresce, o COUNT não
+    @Param({"0", "500"})
+    int pageIndex;
+
+    private Connection connection;
+    private PreparedStatement page;
+    private PreparedStatement count;
+    private Paginator paginator;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:paginator-bench;DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("drop table if exists sorcerer");
+            ddl.execute("create table sorcerer (id bigint primary key, name varchar(150), "
+                    + "name_normalized varchar(150), rank varchar(32))");
+            ddl.execute("create index idx_sorcerer_name_normalized on sorcerer (name_normalized)");
+        }
+        seed();
+
+        page = connection.prepareStatement(
+                "select id, name, rank from sorcerer where name_normalized like ? order by id limit ? offset ?");
+        count = connection.prepareStatement("select count(*) from sorcerer where name_normalized like ?");
+
+        paginator = new Paginator();
+        paginator.countTtl = Duration.ofSeconds(5);
+        paginator.maxEntries = 10_000;
+    }
+
+    private void seed() throws SQLException {
+        String[] syllables = {"ka", "mo", "zen", "in", "go", "jo", "to", "ji", "me", "gu"};
+        String[] ranks = {"GRADE_1", "GRADE_2", "GRADE_3", "GRADE_4", "SPECIAL_GRADE"};
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into sorcerer (id, name, name_normalized, rank) values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                String name = syllables[i % 10] + syllables[(i / 10) % 10] + " " + syllables[(i / 100) % 10] + i;
+                insert.setLong(1, i);
+                insert.setString(2, name);
+                insert.setString(3, name);
+                insert.setString(4, ranks[i % ranks.length]);
+                insert.addBatch();
+                if (i % 5_000 == 0) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("drop table sorcerer");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long countTwicePerRequest() throws SQLException {
+        List<Long> items = page(SIZE);
+        long total = count();
+        long pages = (count() + SIZE - 1) / SIZE;
+        return items.size() + total + pages;
+    }
+
+    @Benchmark
+    public long cachedCount() throws SQLException {
+        List<Long> items = page(SIZE);
+        long total = paginator.count("characters:q=ka", () -> {
+            try {
+                return count();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return items.size() + total;
+    }
+
+    @Benchmark
+    public long withoutTotal() throws SQLException {
+        List<Long> items = page(SIZE + 1);
+        boolean hasMore = items.size() > SIZE;
+        return hasMore ? SIZE : items.size();
+    }
+
+    private List<Long> page(int limit) throws SQLException {
+        page.setString(1, FILTER);
+        page.setInt(2, limit);
+        page.setInt(3, pageIndex * SIZE);
+        List<Long> ids = new ArrayList<>(limit);
+        try (ResultSet rs = page.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private long count() throws SQLException {
+        count.setString(1, FILTER);
+        try (ResultSet rs = count.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PaginatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
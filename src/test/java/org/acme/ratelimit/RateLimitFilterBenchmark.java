@@ -0,0 +1,96 @@
+package org.acme.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Custo da decisão do rate limit por requisição com o log antigo (dois println por requisição
+ * no stdout, aqui apontado para /dev/null) e com o contador agregado de bloqueios. O limiter
+ * é o mesmo nos dois casos; a diferença medida é só a do log.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.acme.ratelimit.RateLimitFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimitFilterBenchmark {
+
+    private static final int LIMIT = 50;
+
+    private RateLimiter limiter;
+    private Rate rate;
+    private RateLimitLog log;
+    private PrintStream stdout;
+
+    @State(Scope.Thread)
+    public static class Client {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        final String ip = "10.0.0." + NEXT.incrementAndGet();
+    }
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        limiter = new RateLimiter(64, 100_000, System::nanoTime);
+        rate = Rate.of(LIMIT, Duration.ofSeconds(10));
+        log = new RateLimitLog();
+        log.maxClients = 10_000;
+        log.top = 10;
+        stdout = new PrintStream(new FileOutputStream("/dev/null"), true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        stdout.close();
+    }
+
+    @Benchmark
+    public boolean printlnPerRequest(Client client) {
+        RateLimiter.Decision decision = limiter.acquire(client.ip, rate, 1);
+        stdout.println("[RATE LIMIT] IP: " + client.ip + " | Remaining: " + decision.remaining() + "/" + LIMIT);
+        if (!decision.allowed()) {
+            stdout.println("[RATE LIMIT] BLOQUEADO IP: " + client.ip);
+        }
+        return decision.allowed();
+    }
+
+    @Benchmark
+    public boolean aggregatedBlocks(Client client) {
+        RateLimiter.Decision decision = limiter.acquire(client.ip, rate, 1);
+        if (!decision.allowed()) {
+            log.blocked(client.ip, RateLimitPolicy.DEFAULT);
+        }
+        return decision.allowed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimitFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,35 @@
+package org.acme.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitPolicyTest {
+
+    @Test
+    void matchesRouteTemplatesAndMethods() {
+        RateLimitPolicy search = policy("/**/search", Set.of("GET"));
+        RateLimitPolicy byId = policy("/*/{id}", Set.of());
+
+        assertTrue(search.matches("/characters/search", "GET"));
+        assertTrue(search.matches("/search", "GET"));
+        assertFalse(search.matches("/characters/search", "POST"));
+        assertTrue(byId.matches("/domain-expansions/{id}", "PUT"));
+        assertFalse(byId.matches("/characters/{id}/techniques", "GET"));
+    }
+
+    @Test
+    void prefersLiteralPatterns() {
+        assertTrue(RateLimitPolicy.specificity("/characters/search") > RateLimitPolicy.specificity("/**/search"));
+        assertTrue(RateLimitPolicy.specificity("/*/{id}") > RateLimitPolicy.specificity("/**"));
+    }
+
+    private static RateLimitPolicy policy(String glob, Set<String> methods) {
+        return new RateLimitPolicy("p", RateLimitPolicy.compile(glob), methods, Set.of(),
+                Rate.of(10, Duration.ofSeconds(1)), 1, RateLimitPolicy.specificity(glob));
+    }
+}
@@ -0,0 +1,122 @@
+package org.acme.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static final int THREADS = 64;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void admitsExactlyTheBurstUnderContention() throws Exception {
+        RateLimiter limiter = new RateLimiter(16, 1000, clock::get);
+        Rate rate = Rate.of(500, Duration.ofSeconds(10));
+
+        AtomicInteger allowed = new AtomicInteger();
+        runConcurrently(THREADS, 200, i -> {
+            if (limiter.acquire("10.0.0.1", rate, 1).allowed()) allowed.incrementAndGet();
+        });
+
+        assertEquals(500, allowed.get());
+    }
+
+    @Test
+    void refillsAtTheSustainedRate() {
+        RateLimiter limiter = new RateLimiter(4, 10, clock::get);
+        Rate rate = Rate.of(5, Duration.ofSeconds(10));
+
+        for (int i = 0; i < 5; i++) assertTrue(limiter.acquire("ip", rate, 1).allowed());
+        RateLimiter.Decision blocked = limiter.acquire("ip", rate, 1);
+        assertFalse(blocked.allowed());
+        assertEquals(TimeUnit.SECONDS.toNanos(2), blocked.retryAfterNanos());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(limiter.acquire("ip", rate, 1).allowed());
+        assertFalse(limiter.acquire("ip", rate, 1).allowed());
+    }
+
+    @Test
+    void capsTrackedKeysAndSweepsIdleOnes() throws Exception {
+        RateLimiter limiter = new RateLimiter(8, 100, clock::get);
+        Rate rate = Rate.of(3, Duration.ofSeconds(1));
+
+        runConcurrently(THREADS, 50, i -> limiter.acquire("scan-" + i, rate, 1));
+        assertEquals(100, limiter.trackedKeys());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.sweepAll();
+        assertEquals(0, limiter.trackedKeys());
+    }
+
+    @Test
+    void overflowBucketIsPerRate() {
+        RateLimiter limiter = new RateLimiter(1, 1, clock::get);
+        Rate reads = Rate.of(2, Duration.ofSeconds(10));
+        Rate writes = Rate.of(3, Duration.ofSeconds(10));
+
+        assertTrue(limiter.acquire("tracked", reads, 1).allowed());
+        // mapa cheio: as chaves novas caem no transbordo da própria taxa
+        assertTrue(limiter.acquire("scan-1", reads, 1).allowed());
+        assertTrue(limiter.acquire("scan-2", reads, 1).allowed());
+        assertFalse(limiter.acquire("scan-3", reads, 1).allowed());
+
+        for (int i = 0; i < 3; i++) assertTrue(limiter.acquire("write-" + i, writes, 1).allowed());
+        assertFalse(limiter.acquire("write-3", writes, 1).allowed());
+        assertEquals(1, limiter.trackedKeys());
+    }
+
+    @Test
+    void keepsExactCountsWhileSweeping() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 1000, clock::get);
+        Rate rate = Rate.of(1000, Duration.ofSeconds(10));
+
+        AtomicInteger allowed = new AtomicInteger();
+        runConcurrently(THREADS, 100, i -> {
+            if (limiter.acquire("hot", rate, 1).allowed()) allowed.incrementAndGet();
+            if (i % 10 == 0) limiter.sweepNext();
+        });
+
+        assertEquals(1000, allowed.get());
+    }
+
+    private static void runConcurrently(int threads, int perThread, IntTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sequence = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) task.run(sequence.getAndIncrement());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int i);
+    }
+}
@@ -0,0 +1,221 @@
+package org.acme.ratelimit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedRateLimitStoreTest {
+
+    private static final long LEASE_TTL = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toNanos(20_000));
+
+    @Test
+    void replicasShareOneGlobalLimit() throws Exception {
+        CountingBackend backend = new CountingBackend(new InMemoryTokenBucketBackend());
+        List<RateLimitStore> replicas = List.of(store(backend), store(backend), store(backend));
+        Rate rate = Rate.of(300, Duration.ofSeconds(10));
+
+        AtomicInteger allowed = new AtomicInteger();
+        AtomicInteger requests = new AtomicInteger();
+        runConcurrently(64, 20, i -> {
+            requests.incrementAndGet();
+            if (replicas.get(i % replicas.size()).acquire("search|10.0.0.1", rate, 1).allowed()) {
+                allowed.incrementAndGet();
+            }
+        });
+
+        assertEquals(300, allowed.get());
+        assertTrue(backend.calls.get() < requests.get() / 2, "leases should batch backend round-trips");
+    }
+
+    @Test
+    void jdbcBackendEnforcesTheLimitAcrossReplicas() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:rate-limit;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        JdbcTokenBucketBackend backend = new JdbcTokenBucketBackend(dataSource, "rate_limit_bucket");
+        List<RateLimitStore> replicas = List.of(store(backend), store(backend));
+        Rate rate = Rate.of(100, Duration.ofSeconds(10));
+
+        AtomicInteger allowed = new AtomicInteger();
+        runConcurrently(16, 20, i -> {
+            if (replicas.get(i % replicas.size()).acquire("default|10.0.0.2", rate, 1).allowed()) {
+                allowed.incrementAndGet();
+            }
+        });
+        assertEquals(100, allowed.get());
+
+        // depois de encher de novo o balde some do banco e a chave recomeça cheia
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        backend.purge(clock.get());
+        assertTrue(replicas.get(0).acquire("default|10.0.0.2", rate, 1).allowed());
+    }
+
+    @Test
+    void unusedLeasesExpire() {
+        InMemoryTokenBucketBackend backend = new InMemoryTokenBucketBackend();
+        RateLimitStore a = store(backend);
+        RateLimitStore b = store(backend);
+        Rate rate = Rate.of(10, Duration.ofSeconds(10));
+
+        assertTrue(a.acquire("k", rate, 1).allowed());
+        assertFalse(b.acquire("k", rate, 1).allowed());
+
+        clock.addAndGet(LEASE_TTL);
+        a.sweep();
+        assertEquals(0, a.trackedKeys());
+        assertTrue(b.acquire("k", rate, 1).allowed());
+    }
+
+    @Test
+    void jdbcBackendRetriesOnlyKeyConflicts() {
+        FlakyDataSource dataSource = new FlakyDataSource("jdbc:h2:mem:rate-limit-retry;DB_CLOSE_DELAY=-1");
+        JdbcTokenBucketBackend backend = new JdbcTokenBucketBackend(dataSource.dataSource, "rate_limit_bucket");
+        Rate rate = Rate.of(10, Duration.ofSeconds(10));
+
+        // outra réplica inseriu a mesma chave: a segunda tentativa usa a linha existente
+        dataSource.connections.set(0);
+        dataSource.failures.add("23505");
+        assertEquals(4, backend.take("k", rate, 4, clock.get()).tokens());
+        assertEquals(2, dataSource.connections.get());
+
+        // banco fora do ar não é repetido
+        dataSource.connections.set(0);
+        dataSource.failures.add("08001");
+        assertThrows(IllegalStateException.class, () -> backend.take("k", rate, 1, clock.get()));
+        assertEquals(1, dataSource.connections.get());
+    }
+
+    @Test
+    void backendOutageFollowsTheConfiguredMode() {
+        TokenBucketBackend down = new TokenBucketBackend() {
+            @Override
+            public Grant take(String key, Rate rate, int requested, long now) {
+                throw new IllegalStateException("database down");
+            }
+
+            @Override
+            public void purge(long now) {
+            }
+        };
+        Rate rate = Rate.of(10, Duration.ofSeconds(10));
+
+        assertTrue(store(down, true).acquire("k", rate, 1).allowed());
+        RateLimiter.Decision rejected = store(down, false).acquire("k", rate, 1);
+        assertFalse(rejected.allowed());
+        assertEquals(LEASE_TTL, rejected.retryAfterNanos());
+    }
+
+    @Test
+    void remainingIsTheGlobalBalance() {
+        InMemoryTokenBucketBackend backend = new InMemoryTokenBucketBackend();
+        RateLimitStore a = store(backend);
+        RateLimitStore b = store(backend);
+        Rate rate = Rate.of(100, Duration.ofSeconds(10));
+
+        // a arrenda 10 e usa 1: 90 no balde compartilhado + 9 no arrendamento
+        assertEquals(99, a.acquire("k", rate, 1).remaining());
+        assertEquals(98, a.acquire("k", rate, 1).remaining());
+        // b arrenda mais 10: o balde compartilhado fica com 80
+        assertEquals(89, b.acquire("k", rate, 1).remaining());
+    }
+
+    private SharedRateLimitStore store(TokenBucketBackend backend) {
+        return store(backend, true);
+    }
+
+    private SharedRateLimitStore store(TokenBucketBackend backend, boolean failOpen) {
+        return new SharedRateLimitStore(backend, 10, LEASE_TTL, TimeUnit.MINUTES.toNanos(1), 1000, failOpen, clock::get);
+    }
+
+    private static void runConcurrently(int threads, int perThread, IntTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sequence = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) task.run(sequence.getAndIncrement());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int i);
+    }
+
+    // DataSource do H2 que falha as próximas conexões com os SQLStates enfileirados
+    private static final class FlakyDataSource {
+        final Queue<String> failures = new ConcurrentLinkedQueue<>();
+        final AtomicInteger connections = new AtomicInteger();
+        final DataSource dataSource;
+
+        FlakyDataSource(String url) {
+            JdbcDataSource h2 = new JdbcDataSource();
+            h2.setURL(url);
+            dataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                    new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("getConnection")) {
+                            connections.incrementAndGet();
+                            String state = failures.poll();
+                            if (state != null) throw new SQLException("simulated failure", state);
+                        }
+                        try {
+                            return method.invoke(h2, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    private static final class CountingBackend implements TokenBucketBackend {
+        final TokenBucketBackend delegate;
+        final AtomicInteger calls = new AtomicInteger();
+
+        CountingBackend(TokenBucketBackend delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Grant take(String key, Rate rate, int requested, long now) {
+            calls.incrementAndGet();
+            return delegate.take(key, rate, requested, now);
+        }
+
+        @Override
+        public void purge(long now) {
+            delegate.purge(now);
+        }
+    }
+}
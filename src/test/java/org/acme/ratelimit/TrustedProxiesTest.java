@@ -0,0 +1,47 @@
+package org.acme.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TrustedProxiesTest {
+
+    private final TrustedProxies proxies = new TrustedProxies(List.of("10.0.0.0/8", "192.168.1.10", "fd00::/8"));
+
+    @Test
+    void headerFromAnUntrustedPeerIsIgnored() {
+        assertEquals("198.51.100.4", proxies.client("198.51.100.4", "203.0.113.7"));
+        assertEquals("127.0.0.1", new TrustedProxies(List.of()).client("127.0.0.1", "203.0.113.7"));
+    }
+
+    @Test
+    void clientIsTheFirstUntrustedHopFromTheRight() {
+        assertEquals("198.51.100.4", proxies.client("10.1.2.3", "198.51.100.4"));
+        assertEquals("198.51.100.4", proxies.client("10.1.2.3", "198.51.100.4, 192.168.1.10"));
+        assertEquals("2001:db8::1", proxies.client("fd12::1", "2001:db8::1"));
+    }
+
+    @Test
+    void spoofedEntriesLeftOfTheRealClientAreIgnored() {
+        // o cliente mandou o header pronto e o proxy acrescentou o endereço real dele
+        assertEquals("198.51.100.4", proxies.client("10.1.2.3", "203.0.113.7, 198.51.100.4"));
+        assertEquals("198.51.100.4", proxies.client("10.1.2.3", "10.9.9.9, 198.51.100.4"));
+    }
+
+    @Test
+    void malformedHeaderFallsBackToThePeer() {
+        assertEquals("10.1.2.3", proxies.client("10.1.2.3", "198.51.100.4, "));
+        assertEquals("10.1.2.3", proxies.client("10.1.2.3", null));
+        assertEquals("10.0.0.1", proxies.client("10.1.2.3", "10.0.0.1, 10.0.0.2"));
+    }
+
+    @Test
+    void invalidEntriesFailAtStartup() {
+        assertThrows(IllegalStateException.class, () -> new TrustedProxies(List.of("proxy.interno")));
+        assertThrows(IllegalStateException.class, () -> new TrustedProxies(List.of("10.0.0.0/33")));
+        assertThrows(IllegalStateException.class, () -> new TrustedProxies(List.of("10.0.0.0/x")));
+    }
+}
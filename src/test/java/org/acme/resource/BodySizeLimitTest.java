@@ -0,0 +1,102 @@
+package org.acme.resource;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(BodySizeLimitTest.SmallBodies.class)
+class BodySizeLimitTest {
+
+    // limite geral pequeno, importações com folga
+    public static class SmallBodies implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "kokusen.http.max-body-size", "1K",
+                    "kokusen.import.max-body-size", "1M");
+        }
+    }
+
+    private static final String LONG_DESCRIPTION = "x".repeat(2048);
+
+    @TestHTTPResource("/clans/1")
+    URI clan;
+
+    @Test
+    void putAboveGeneralLimitIsRejected() {
+        given().contentType("application/json")
+                .body("{\"name\":\"Clã Grande\",\"description\":\"" + LONG_DESCRIPTION + "\"}")
+                .when().put("/clans/1")
+                .then()
+                .statusCode(413)
+                .body("error", containsString("1024 bytes"));
+    }
+
+    @Test
+    void chunkedPutAboveGeneralLimitIsRejected() throws Exception {
+        // sem Content-Length: só o limite que o stream de entrada aplica durante a leitura segura o corpo
+        byte[] body = ("{\"name\":\"Clã Chunked\",\"description\":\"" + LONG_DESCRIPTION + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(clan)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(body)))
+                .build();
+
+        HttpResponse<String> response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()
+                .send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(413, response.statusCode());
+        given().when().get("/clans/1")
+                .then()
+                .statusCode(200)
+                .body("name", is("Zenin"));
+    }
+
+    @Test
+    void onlyTheImportRoutesAreExempt() {
+        // termina em /import mas não é uma importação: vale o limite geral
+        given().contentType("application/json")
+                .body("{\"name\":\"" + LONG_DESCRIPTION + "\"}")
+                .when().post("/search/import")
+                .then()
+                .statusCode(413);
+
+        given().contentType("application/json")
+                .body("{\"name\":\"" + LONG_DESCRIPTION + "\"}")
+                .when().post("/clans/1/import")
+                .then()
+                .statusCode(413);
+    }
+
+    @Test
+    void importAcceptsBodyAboveGeneralLimit() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            body.append("{\"name\":\"Clã Importado Limite ").append(i).append("\",\"description\":\"")
+                    .append("d".repeat(100)).append("\"}\n");
+        }
+
+        given().contentType("application/x-ndjson")
+                .body(body.toString().getBytes(StandardCharsets.UTF_8))
+                .when().post("/clans/import")
+                .then()
+                .statusCode(200)
+                .body(containsString("\"event\":\"done\",\"lines\":20,\"created\":20"));
+    }
+}
@@ -0,0 +1,128 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(BulkResourceTest.OwnDatabase.class)
+class BulkResourceTest {
+
+    // perfil próprio: a aplicação sobe com um banco novo e os personagens do lote não vazam para os outros testes
+    public static class OwnDatabase implements QuarkusTestProfile {
+    }
+
+    private static final int CHARACTERS = 200;
+
+    // resolução dos nomes, sequências e inserts em lotes JDBC; cresce com o lote só pelo número de lotes
+    private static final long MAX_STATEMENTS = 20;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void clanBatchReportsEachItem() {
+        given().contentType("application/json")
+                .body("[{\"name\":\"Clã Lote\",\"description\":\"a\"},{\"name\":\"Zenin\"},{\"name\":\"\"},{\"name\":\"clã lote\"}]")
+                .when().post("/clans/batch")
+                .then()
+                .statusCode(200)
+                .body("created", is(1))
+                .body("failed", is(3))
+                .body("results[0].status", is(201))
+                .body("results[1].status", is(409))
+                .body("results[2].status", is(400))
+                .body("results[3].error", is("Clan name repeated in batch"));
+    }
+
+    @Test
+    void characterBatchFromNdjsonUsesBoundedNumberOfStatements() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < CHARACTERS; i++) {
+            ndjson.append("{\"name\":\"Lote ").append(i)
+                    .append("\",\"rank\":\"GRADE_3\",\"clanName\":\"Kamo\",\"techniqueNames\":[\"Blood Manipulation\"]}\n");
+        }
+        ndjson.append("{\"name\":\"Lote inválido\",\"clanName\":\"Inexistente\"}\n");
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        given().contentType("application/x-ndjson")
+                .body(ndjson.toString().getBytes(StandardCharsets.UTF_8))
+                .when().post("/characters/batch")
+                .then()
+                .statusCode(200)
+                .body("created", is(CHARACTERS))
+                .body("results[" + CHARACTERS + "].error", is("clan 'Inexistente' not found"));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS, "POST /characters/batch executed " + statements + " statements");
+
+        given().when().get("/characters/search?q=lote 199")
+                .then()
+                .statusCode(200)
+                .body("characters[0].clanName", is("Kamo"))
+                .body("characters[0].techniques[0]", is("Blood Manipulation"));
+    }
+
+    @Test
+    void upsertUpdatesCharacterWithSameName() {
+        given().contentType("application/json")
+                .body("[{\"name\":\"Upsert Alvo\",\"rank\":\"GRADE_4\"}]")
+                .when().post("/characters/batch")
+                .then().statusCode(200).body("created", is(1));
+
+        given().contentType("application/json")
+                .body("[{\"name\":\"Upsert Alvo\",\"rank\":\"GRADE_1\",\"clanName\":\"Gojo\"}]")
+                .when().post("/characters/batch?mode=upsert")
+                .then().statusCode(200).body("updated", is(1));
+
+        given().when().get("/characters/search?q=upsert alvo")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(1))
+                .body("characters[0].rank", is("GRADE_1"))
+                .body("characters[0].clanName", is("Gojo"));
+    }
+
+    @Test
+    void importStreamsLineErrorsAndCommitsEachChunk() {
+        String ndjson = "{\"name\":\"Importada 1\",\"description\":\"a\"}\n"
+                + "\n"
+                + "{nope\n"
+                + "{\"name\":\"Zenin\"}\n"
+                + "{\"name\":\"Importada 2\",\"description\":\"b\"}\r\n";
+
+        List<String> events = given().contentType("application/x-ndjson")
+                .body(ndjson.getBytes(StandardCharsets.UTF_8))
+                .when().post("/clans/import")
+                .then()
+                .statusCode(200)
+                .extract().asString().lines().toList();
+
+        assertEquals("{\"event\":\"error\",\"line\":3,\"status\":400,\"error\":\"Malformed JSON\"}", events.get(0));
+        assertEquals("{\"event\":\"error\",\"line\":4,\"status\":409,\"error\":\"Clan with this name already exists\"}", events.get(1));
+        assertEquals("{\"event\":\"done\",\"lines\":5,\"created\":2,\"updated\":0,\"failed\":2}", events.get(events.size() - 1));
+
+        // sem a idempotência o reenvio é processado de novo, e cada linha já importada recebe seu 409
+        given().contentType("application/x-ndjson")
+                .body(ndjson.getBytes(StandardCharsets.UTF_8))
+                .when().post("/clans/import?mode=upsert")
+                .then()
+                .statusCode(200)
+                .body(containsString("{\"event\":\"done\",\"lines\":5,\"created\":0,\"updated\":3,\"failed\":1}"));
+    }
+}
@@ -0,0 +1,122 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class CharacterResourceTest {
+
+    // select da página (com clã e expansão) + técnicas em lote + count
+    private static final long MAX_STATEMENTS_PER_PAGE = 3;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listPageUsesBoundedNumberOfStatements() {
+        given()
+                .when().get("/characters?size=10")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(6))
+                .body("characters[0].clanName", is("Gojo"))
+                .body("characters[0].techniques[0]", is("Limitless"))
+                .body("characters[0].domainExpansionName", is("Unlimited Void"));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS_PER_PAGE,
+                "GET /characters executed " + statements + " statements");
+    }
+
+    @Test
+    void searchPageUsesBoundedNumberOfStatements() {
+        given()
+                .when().get("/characters/search?q=fushiguro")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(2));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS_PER_PAGE,
+                "GET /characters/search executed " + statements + " statements");
+    }
+
+    @Test
+    void repeatedPageReusesCachedCount() {
+        given().when().get("/characters?size=2").then().statusCode(200);
+        statistics.clear();
+
+        given()
+                .when().get("/characters?size=2&page=2")
+                .then()
+                .statusCode(200)
+                .body("totalCharacters", is(6))
+                .body("totalPages", is(3));
+
+        // página + técnicas em lote; o total veio do cache
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void includeTotalFalseSkipsCount() {
+        given()
+                .when().get("/characters/search?q=fushiguro&size=1&includeTotal=false")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(1))
+                .body("totalCharacters", nullValue())
+                .body("hasMore", is(true))
+                .body("nextPage", is("/characters/search?q=fushiguro&page=2&size=1&sort=id&direction=asc&includeTotal=false"));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getByIdLoadsOnceThenServesFromCache() {
+        String etag = given()
+                .when().get("/characters/3")
+                .then()
+                .statusCode(200)
+                .body("name", is("Megumi Fushiguro"))
+                .extract().header("ETag");
+
+        long statements = statistics.getPrepareStatementCount();
+
+        // segundo GET: hit do cache, respondido sem ir ao banco
+        given()
+                .when().get("/characters/3")
+                .then()
+                .statusCode(200)
+                .header("ETag", is(etag));
+        given()
+                .header("If-None-Match", etag)
+                .when().get("/characters/3")
+                .then()
+                .statusCode(304);
+        assertEquals(statements, statistics.getPrepareStatementCount());
+
+        given()
+                .when().get("/characters/99999")
+                .then()
+                .statusCode(404)
+                .body("error", is("Character not found"));
+    }
+}
@@ -0,0 +1,92 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.acme.filter.ETags;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class ETagTest {
+
+    @Test
+    void cachedRepresentationAnswers304() {
+        String etag = etag("/domain-expansions/1");
+
+        given().header("If-None-Match", etag)
+                .when().get("/domain-expansions/1")
+                .then()
+                .statusCode(304)
+                .header("ETag", etag)
+                .body(is(emptyString()));
+    }
+
+    @Test
+    void ifNoneMatchAcceptsListsWeakTagsAndStar() {
+        String etag = etag("/clans/2");
+
+        notModified("/clans/2", "\"outro\", " + etag);
+        notModified("/clans/2", "W/" + etag);
+        notModified("/clans/2", "*");
+
+        given().header("If-None-Match", "\"outro\", W/\"mais-um\"")
+                .when().get("/clans/2")
+                .then()
+                .statusCode(200)
+                .header("ETag", etag)
+                .body("name", is("Gojo"));
+    }
+
+    @Test
+    void listResponsesAreTaggedByTheFilter() {
+        // listagem fora do cache de representações: o filtro serializa e calcula o hash
+        String path = "/techniques?size=2&sort=id";
+        String etag = etag(path);
+
+        notModified(path, etag);
+        given().header("If-None-Match", "\"outro\"")
+                .when().get(path)
+                .then()
+                .statusCode(200)
+                .header("ETag", etag)
+                .body("techniques.size()", is(2));
+
+        given().when().get("/techniques?size=3&sort=id")
+                .then()
+                .statusCode(200)
+                .header("ETag", not(etag));
+    }
+
+    @Test
+    void sameBodyHasTheSameTagOnEveryThread() throws Exception {
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        String here = ETags.of(body);
+        ETags.of("outro corpo".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(here, ETags.of(body));
+        assertEquals(here, CompletableFuture.supplyAsync(() -> ETags.of(body)).get());
+    }
+
+    private static String etag(String path) {
+        return given().when().get(path)
+                .then()
+                .statusCode(200)
+                .header("ETag", matchesPattern("\"[0-9a-f]{32}\""))
+                .extract().header("ETag");
+    }
+
+    private static void notModified(String path, String ifNoneMatch) {
+        given().header("If-None-Match", ifNoneMatch)
+                .when().get(path)
+                .then()
+                .statusCode(304);
+    }
+}
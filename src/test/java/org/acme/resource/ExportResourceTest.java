@@ -0,0 +1,102 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.path.json.JsonPath;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ExportResourceTest.SmallChunks.class)
+class ExportResourceTest {
+
+    // banco próprio e blocos pequenos, para a exportação atravessar vários blocos
+    public static class SmallChunks implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("kokusen.export.chunk-size", "50");
+        }
+    }
+
+    private static final int CHARACTERS = 120;
+
+    // cursor + um carregamento de técnicas por bloco; sem os joins seriam várias consultas por linha
+    private static final long MAX_STATEMENTS = 10;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void characterExportStreamsEveryRowInIdOrder() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < CHARACTERS; i++) {
+            ndjson.append("{\"name\":\"Export ").append(i)
+                    .append("\",\"rank\":\"GRADE_2\",\"clanName\":\"Zenin\",\"techniqueNames\":[\"Ten Shadows\"]}\n");
+        }
+        given().contentType("application/x-ndjson")
+                .body(ndjson.toString().getBytes(StandardCharsets.UTF_8))
+                .when().post("/characters/batch")
+                .then().statusCode(200).body("created", is(CHARACTERS));
+
+        int total = given().when().get("/characters?size=1")
+                .then().statusCode(200).extract().path("totalCharacters");
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        String body = given().when().get("/characters/export")
+                .then()
+                .statusCode(200)
+                .contentType(startsWith("application/x-ndjson"))
+                .header("Content-Disposition", is("attachment; filename=\"characters.ndjson\""))
+                .extract().asString();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS, "GET /characters/export executed " + statements + " statements");
+
+        List<String> lines = body.lines().toList();
+        assertEquals(total, lines.size());
+
+        long previousId = 0;
+        for (String line : lines) {
+            long id = JsonPath.from(line).getLong("id");
+            assertTrue(id > previousId, "ids out of order: " + previousId + " then " + id);
+            previousId = id;
+        }
+
+        JsonPath last = JsonPath.from(lines.get(lines.size() - 1));
+        assertEquals("Export " + (CHARACTERS - 1), last.getString("name"));
+        assertEquals("Zenin", last.getString("clanName"));
+        assertEquals(List.of("Ten Shadows"), last.getList("techniques"));
+    }
+
+    @Test
+    void domainExpansionExportIncludesOwner() {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        String body = given().when().get("/domain-expansions/export")
+                .then().statusCode(200)
+                .extract().asString();
+
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS);
+
+        List<String> lines = body.lines().toList();
+        assertTrue(!lines.isEmpty());
+        assertNotNull(JsonPath.from(lines.get(0)).get("ownerId"));
+    }
+}
@@ -0,0 +1,158 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(KeysetPagingTest.SmallPages.class)
+class KeysetPagingTest {
+
+    // banco próprio e teto de página baixo, para testar o limite sem criar centenas de linhas
+    public static class SmallPages implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("kokusen.pagination.max-size", "4");
+        }
+    }
+
+    // nomes e ranks repetidos: o desempate pelo id é o que evita duplicatas e buracos
+    private static final String[][] CHARACTERS = {
+            {"Todo & Yuji", "GRADE_1"},
+            {"Todo & Yuji", "GRADE_2"},
+            {"Todo & Yuji", "GRADE_3"},
+            {"Nobara", "GRADE_3"},
+            {"Panda", "GRADE_2"},
+            {"Inumaki", "SEMI_GRADE_1"},
+    };
+
+    private static boolean created;
+
+    @BeforeEach
+    void createCharacters() {
+        if (created) {
+            return;
+        }
+        created = true;
+        for (String[] c : CHARACTERS) {
+            given().contentType("application/json")
+                    .body("{\"name\":\"" + c[0] + "\",\"rank\":\"" + c[1] + "\"}")
+                    .when().post("/characters")
+                    .then().statusCode(201);
+        }
+    }
+
+    @Test
+    void walkingEveryPageVisitsEachRowOnceInOrder() {
+        Set<Integer> all = new HashSet<>(given().when().get("/characters?size=50&includeTotal=false")
+                .then().statusCode(200)
+                .extract().<List<Integer>>path("characters.id"));
+        assertEquals(12, all.size());
+
+        for (String sort : List.of("id", "name", "rank")) {
+            for (String direction : List.of("asc", "desc")) {
+                List<Map<String, Object>> rows = walk("/characters?cursor=&size=3&sort=" + sort + "&direction=" + direction);
+
+                List<Integer> ids = rows.stream().map(r -> (Integer) r.get("id")).toList();
+                assertEquals(all, new HashSet<>(ids), sort + " " + direction + " skipped rows");
+                assertEquals(ids.size(), all.size(), sort + " " + direction + " repeated rows");
+
+                Comparator<Map<String, Object>> byId = Comparator.comparing(r -> (Integer) r.get("id"));
+                Comparator<Map<String, Object>> order = sort.equals("id")
+                        ? byId
+                        : Comparator.comparing((Map<String, Object> r) -> (String) r.get(sort)).thenComparing(byId);
+                if (direction.equals("desc")) order = order.reversed();
+                List<Map<String, Object>> sorted = new ArrayList<>(rows);
+                sorted.sort(order);
+                assertEquals(sorted, rows, sort + " " + direction + " out of order");
+            }
+        }
+    }
+
+    @Test
+    void searchLinkKeepsTheEncodedQuery() {
+        List<Map<String, Object>> rows = walk("/characters/search?q=todo%20%26%20yuji&cursor=&size=2&sort=name");
+
+        assertEquals(3, rows.size());
+        assertTrue(rows.stream().allMatch(r -> r.get("name").equals("Todo & Yuji")));
+
+        // o link do modo OFFSET também leva a busca codificada
+        String next = given().queryParam("q", "todo & yuji").queryParam("size", 2)
+                .when().get("/characters/search")
+                .then().statusCode(200)
+                .body("nextPage", is("/characters/search?q=todo+%26+yuji&page=2&size=2&sort=id&direction=asc"))
+                .extract().path("nextPage");
+        given().urlEncodingEnabled(false)
+                .when().get(next)
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(1))
+                .body("totalCharacters", is(3));
+    }
+
+    @Test
+    void sizeIsValidatedAndCapped() {
+        given().when().get("/characters?cursor=&size=0")
+                .then()
+                .statusCode(400)
+                .body("error", is("size must be at least 1"));
+
+        given().when().get("/characters?cursor=&size=1000")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(4))
+                .body("hasMore", is(true))
+                .body("nextPage", startsWith("/characters?cursor="))
+                .body("nextPage", containsString("&size=4&"));
+    }
+
+    @Test
+    void cursorOfAnotherSortIsRejected() {
+        String byName = given().when().get("/characters?cursor=&size=2&sort=name")
+                .then().statusCode(200)
+                .extract().path("nextCursor");
+
+        given().when().get("/characters?cursor=" + byName + "&size=2&sort=rank")
+                .then()
+                .statusCode(400)
+                .body("error", is("Invalid cursor"));
+
+        given().when().get("/characters?cursor=" + byName + "&size=2&sort=name&direction=desc")
+                .then()
+                .statusCode(400);
+    }
+
+    // segue nextPage até o fim, exatamente como um cliente faria
+    private static List<Map<String, Object>> walk(String first) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        String next = first;
+        for (int pages = 0; !next.isEmpty(); pages++) {
+            assertTrue(pages < 20, "pagination did not finish");
+            JsonPath page = given().urlEncodingEnabled(false)
+                    .when().get(next)
+                    .then().statusCode(200)
+                    .extract().jsonPath();
+            rows.addAll(page.getList("characters"));
+            next = page.getString("nextPage");
+            assertEquals(page.getBoolean("hasMore"), !next.isEmpty());
+        }
+        return rows;
+    }
+}
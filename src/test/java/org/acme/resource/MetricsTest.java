@@ -0,0 +1,78 @@
+package org.acme.resource;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class MetricsTest {
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void statementsPerRequestIncludeStreamedBody() throws InterruptedException {
+        Statistics statistics = sessionFactory.getStatistics();
+        DistributionSummary before = summary("/characters/export");
+        long countBefore = before == null ? 0 : before.count();
+        double totalBefore = before == null ? 0 : before.totalAmount();
+        statistics.clear();
+
+        given()
+                .when().get("/characters/export")
+                .then()
+                .statusCode(200);
+
+        // gravado no fim da resposta, depois que o cliente já recebeu o corpo
+        DistributionSummary after = summary("/characters/export");
+        for (int i = 0; i < 50 && (after == null || after.count() == countBefore); i++) {
+            Thread.sleep(20);
+            after = summary("/characters/export");
+        }
+
+        assertTrue(after != null && after.count() == countBefore + 1, "request was not recorded");
+        assertEquals(statistics.getPrepareStatementCount(), (long) (after.totalAmount() - totalBefore));
+    }
+
+    @Test
+    void scrapeExposesRouteHistogramsAndHibernateStatistics() {
+        given().when().get("/characters/1").then().statusCode(200);
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("http_server_requests_seconds_bucket{method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/characters/{id}\""))
+                .body(containsString("http_server_requests_seconds{method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/characters/{id}\",quantile=\"0.99\"}"))
+                .body(containsString("kokusen_request_statements_count{method=\"GET\",uri=\"/characters/{id}\"}"))
+                .body(containsString("hibernate_statements_total"))
+                .body(containsString("cache_gets_total{cache=\"representations\",result=\"hit\"}"));
+    }
+
+    @Test
+    void headIsRecordedUnderTheGetRoute() {
+        given().when().head("/domain-expansions/1").then().statusCode(200);
+        given().when().get("/domain-expansions/1").then().statusCode(200);
+
+        assertTrue(registry.find("kokusen.request.statements").tag("uri", "/domain-expansions/{id}")
+                .tag("method", "HEAD").summaries().isEmpty());
+        assertTrue(registry.find("kokusen.request.statements").tag("uri", "/domain-expansions/{id}")
+                .tag("method", "GET").summary() != null);
+    }
+
+    private DistributionSummary summary(String uri) {
+        return registry.find("kokusen.request.statements").tag("uri", uri).summary();
+    }
+}
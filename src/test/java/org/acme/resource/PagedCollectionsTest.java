@@ -0,0 +1,270 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(PagedCollectionsTest.OwnDatabase.class)
+class PagedCollectionsTest {
+
+    // banco próprio: os totais das páginas não dependem do que os outros testes criam
+    public static class OwnDatabase implements QuarkusTestProfile {
+    }
+
+    // espaço, acento, apóstrofo e barra: todos precisam sair codificados no nextPage
+    private static final String CLAN = "Clã Zen'in/Página";
+
+    private static boolean created;
+    private static Long clanId;
+    private static Integer firstMemberId;
+    private static final List<Integer> memberIds = new ArrayList<>();
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @BeforeEach
+    void createCharacters() {
+        if (created) {
+            return;
+        }
+        created = true;
+        clanId = given().contentType("application/json")
+                .body("{\"name\":\"" + CLAN + "\",\"description\":\"clã com nome difícil\"}")
+                .when().post("/clans")
+                .then().statusCode(201)
+                .extract().<Integer>path("id").longValue();
+
+        // o primeiro membro usa três técnicas, para paginar também /characters/{id}/techniques
+        String[] techniques = {
+                "\"Blood Manipulation\",\"Limitless\",\"Ten Shadows\"",
+                "\"Limitless\"",
+                "\"Limitless\""
+        };
+        for (int i = 1; i <= 3; i++) {
+            Integer id = given().contentType("application/json")
+                    .body("{\"name\":\"Membro Página " + i + "\",\"rank\":\"GRADE_3\",\"clanName\":\"" + CLAN + "\","
+                            + "\"techniqueNames\":[" + techniques[i - 1] + "]}")
+                    .when().post("/characters")
+                    .then().statusCode(201)
+                    .extract().path("id");
+            memberIds.add(id);
+            if (i == 1) {
+                firstMemberId = id;
+            }
+        }
+    }
+
+    @Test
+    void byClanPagesAndEncodesNextPage() {
+        String nextPage = given().pathParam("clan", CLAN)
+                .when().get("/characters/clan/{clan}?size=2")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(2))
+                .body("characters[0].name", is("Membro Página 1"))
+                .body("totalCharacters", is(3))
+                .body("totalPages", is(2))
+                .body("hasMore", is(true))
+                .body("nextPage", is("/characters/clan/Cl%C3%A3%20Zen'in%2FP%C3%A1gina?page=2&size=2"))
+                .extract().path("nextPage");
+
+        given().urlEncodingEnabled(false)
+                .when().get(nextPage)
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(1))
+                .body("characters[0].name", is("Membro Página 3"))
+                .body("hasMore", is(false))
+                .body("nextPage", is(""));
+    }
+
+    @Test
+    void byClanOfUnknownClanIs404() {
+        given().when().get("/characters/clan/Inexistente")
+                .then()
+                .statusCode(404)
+                .body("error", is("clan 'Inexistente' not found"));
+    }
+
+    @Test
+    void byRankPagesInTheDatabase() {
+        given().when().get("/characters/rank/grade_3?size=2&page=2")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(1))
+                .body("characters[0].rank", is("GRADE_3"))
+                .body("totalCharacters", is(3))
+                .body("totalPages", is(2))
+                .body("hasMore", is(false))
+                .body("nextPage", is(""));
+
+        given().when().get("/characters/rank/GRADE_3?size=2")
+                .then()
+                .statusCode(200)
+                .body("hasMore", is(true))
+                .body("nextPage", is("/characters/rank/GRADE_3?page=2&size=2"));
+
+        given().when().get("/characters/rank/CAPITAO")
+                .then()
+                .statusCode(400)
+                .body("error", is("Invalid rank: CAPITAO"));
+    }
+
+    @Test
+    void characterTechniquesArePaged() {
+        given().when().get("/characters/" + firstMemberId + "/techniques?size=2")
+                .then()
+                .statusCode(200)
+                .body("techniques.name", is(List.of("Limitless", "Ten Shadows")))
+                .body("totalTechniques", is(3))
+                .body("totalPages", is(2))
+                .body("hasMore", is(true))
+                .body("nextPage", is("/characters/" + firstMemberId + "/techniques?page=2&size=2"));
+
+        given().when().get("/characters/" + firstMemberId + "/techniques?size=2&page=2")
+                .then()
+                .statusCode(200)
+                .body("techniques.name", is(List.of("Blood Manipulation")))
+                .body("hasMore", is(false))
+                .body("nextPage", is(""));
+
+        given().when().get("/characters/999999/techniques")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void clanMembersArePaged() {
+        given().when().get("/clans/" + clanId + "/members?size=2&page=2")
+                .then()
+                .statusCode(200)
+                .body("characters.name", is(List.of("Membro Página 3")))
+                .body("characters[0].clanName", is(CLAN))
+                .body("totalCharacters", is(3))
+                .body("totalPages", is(2))
+                .body("hasMore", is(false))
+                .body("nextPage", is(""));
+
+        given().when().get("/clans/" + clanId + "/members?size=2")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(2))
+                .body("nextPage", is("/clans/" + clanId + "/members?page=2&size=2"));
+
+        given().when().get("/clans/999999/members")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void techniqueUsersArePaged() {
+        // Satoru Gojo (seed) e os três membros criados aqui
+        given().when().get("/techniques/1/users?size=3")
+                .then()
+                .statusCode(200)
+                .body("characters.name", is(List.of("Satoru Gojo", "Membro Página 1", "Membro Página 2")))
+                .body("totalCharacters", is(4))
+                .body("totalPages", is(2))
+                .body("hasMore", is(true))
+                .body("nextPage", is("/techniques/1/users?page=2&size=3"));
+
+        given().when().get("/techniques/1/users?size=3&page=2")
+                .then()
+                .statusCode(200)
+                .body("characters.name", is(List.of("Membro Página 3")))
+                .body("nextPage", is(""));
+
+        given().when().get("/techniques/999999/users")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void clanListGroupsMemberIdsInOneQuery() {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        given().when().get("/clans?size=10&includeTotal=false")
+                .then()
+                .statusCode(200)
+                .body("clans.find { it.name == 'Zenin' }.memberIds", is(List.of(2, 5)))
+                .body("clans.find { it.name == 'Sem Clã' }.memberIds", is(List.of()))
+                .body("clans.find { it.id == " + clanId + " }.memberIds", is(memberIds));
+
+        // página de clãs + ids dos membros de todos eles agrupados
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 2, "GET /clans executed " + statements + " statements");
+    }
+
+    @Test
+    void techniqueListGroupsUserIdsInOneQuery() {
+        List<Integer> limitlessUsers = new ArrayList<>(List.of(1));
+        limitlessUsers.addAll(memberIds);
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        given().when().get("/techniques?size=10&includeTotal=false")
+                .then()
+                .statusCode(200)
+                .body("techniques.find { it.name == 'Limitless' }.userIds", is(limitlessUsers))
+                .body("techniques.find { it.name == 'Heavenly Restriction' }.userIds", is(List.of(2, 5)))
+                .body("techniques.find { it.name == 'Blood Manipulation' }.userIds", is(List.of(4, firstMemberId)));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 2, "GET /techniques executed " + statements + " statements");
+    }
+
+    @Test
+    void subCollectionsCanSkipTheCount() {
+        given().when().get("/clans/" + clanId + "/members?size=2&includeTotal=false")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(2))
+                .body("totalCharacters", nullValue())
+                .body("totalPages", nullValue())
+                .body("hasMore", is(true))
+                .body("nextPage", is("/clans/" + clanId + "/members?page=2&size=2&includeTotal=false"));
+
+        given().when().get("/characters/rank/GRADE_3?size=3&includeTotal=false")
+                .then()
+                .statusCode(200)
+                .body("characters.size()", is(3))
+                .body("hasMore", is(false))
+                .body("nextPage", is(""));
+
+        given().pathParam("clan", CLAN)
+                .when().get("/characters/clan/{clan}?size=2&includeTotal=false")
+                .then()
+                .statusCode(200)
+                .body("totalCharacters", nullValue())
+                .body("nextPage", is("/characters/clan/Cl%C3%A3%20Zen'in%2FP%C3%A1gina?page=2&size=2&includeTotal=false"));
+
+        // sem COUNT: em cada chamada, busca do pai + página (uma linha a mais decide hasMore) + ids em lote
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        given().when().get("/techniques/1/users?size=2&includeTotal=false")
+                .then()
+                .statusCode(200)
+                .body("hasMore", is(true));
+        given().when().get("/characters/" + firstMemberId + "/techniques?includeTotal=false")
+                .then()
+                .statusCode(200)
+                .body("techniques.size()", is(3));
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "executed " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
@@ -0,0 +1,45 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+
+@QuarkusTest
+@TestProfile(RateLimitClientTest.InternalClients.class)
+class RateLimitClientTest {
+
+    public static class InternalClients implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "kokusen.rate-limit.enabled", "true",
+                    "kokusen.rate-limit.trusted-proxies", "10.0.0.0/8",
+                    "kokusen.rate-limit.client-classes.internal", "203.0.113.7",
+                    "kokusen.rate-limit.policies.internal.path", "/*/{id}",
+                    "kokusen.rate-limit.policies.internal.clients", "internal",
+                    "kokusen.rate-limit.policies.internal.limit", "1000",
+                    "kokusen.rate-limit.policies.internal.window", "10s");
+        }
+    }
+
+    @Test
+    void spoofedForwardedForDoesNotChangeThePolicy() {
+        // a conexão vem de 127.0.0.1, que não é proxy confiável: o header não vale
+        given().header("X-Forwarded-For", "203.0.113.7")
+                .when().get("/characters/1")
+                .then()
+                .statusCode(200)
+                .header("X-RateLimit-Limit", "100");
+
+        given().header("X-Forwarded-For", "203.0.113.7, 10.0.0.1")
+                .when().get("/characters/1")
+                .then()
+                .statusCode(200)
+                .header("X-RateLimit-Limit", "100");
+    }
+}
@@ -0,0 +1,138 @@
+package org.acme.resource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Carga sobre uma aplicação já rodando: {@code concurrency} clientes repetem {@code GET /characters/{id}}
+ * (ids de 1 a {@code ids}) enquanto {@code background} clientes ocupam os workers com listagens
+ * ({@code backgroundPath}). Mede vazão e latência das leituras por id, que rodam no event loop e
+ * só vão a um worker num miss do cache, contra as listagens, que são bloqueantes. Para comparar com
+ * a versão anterior (GET /{id} bloqueante), rode o mesmo comando contra um build dela.
+ * O pool de workers pequeno deixa a saturação visível; o rate limit precisa estar desligado.
+ * {@code path} troca o endpoint medido ({id} é substituído); para comparar workers e virtual threads,
+ * meça um endpoint bloqueante com muitas conexões e sem carga de fundo, contra os dois builds:
+ * {@code -Dpath=/characters/search?q=go -Dconcurrency=5000 -Dbackground=0}, com o app construído com e sem
+ * {@code -Dquarkus.virtual-threads.enabled=true}.
+ *
+ * <pre>
+ * mvn package -DskipTests
+ * java -Dquarkus.thread-pool.max-threads=8 -Dkokusen.rate-limit.enabled=false -jar target/quarkus-app/quarkus-run.jar
+ * mvn test-compile
+ * java -cp target/test-classes -Dconcurrency=200 -Dbackground=32 -Dseconds=15 org.acme.resource.ReadPathLoadBenchmark
+ * </pre>
+ */
+public class ReadPathLoadBenchmark {
+
+    private record Result(String name, long requests, Map<String, LongAdder> errors, long[] latenciesMicros,
+                          double seconds) {
+
+        @Override
+        public String toString() {
+            long[] sorted = latenciesMicros.clone();
+            Arrays.sort(sorted);
+            return String.format("%-40s %9.0f req/s  p50 %6.2f ms  p99 %7.2f ms  max %7.2f ms  errors %s",
+                    name, requests / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0, errors);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))] / 1000.0;
+        }
+    }
+
+    // latências de um cliente, em micros
+    private static final class Samples {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String base = System.getProperty("base", "http://localhost:8080");
+        int concurrency = Integer.getInteger("concurrency", 200);
+        int background = Integer.getInteger("background", 32);
+        int seconds = Integer.getInteger("seconds", 15);
+        int ids = Integer.getInteger("ids", 6);
+        String path = System.getProperty("path", "/characters/{id}");
+        String backgroundPath = System.getProperty("backgroundPath", "/characters?size=100&includeTotal=false");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        // aquecimento: JIT e cache de representações
+        run(client, "warmup", concurrency, 3, i -> base + path.replace("{id}", String.valueOf(1 + i % ids)));
+
+        try (ExecutorService both = Executors.newVirtualThreadPerTaskExecutor()) {
+            var measured = both.submit(() -> run(client, "GET " + path, concurrency, seconds,
+                    i -> base + path.replace("{id}", String.valueOf(1 + ThreadLocalRandom.current().nextInt(ids)))));
+            var list = both.submit(() -> run(client, "GET list", background, seconds, i -> base + backgroundPath));
+            System.out.println(measured.get());
+            if (background > 0) System.out.println(list.get());
+        }
+    }
+
+    private static Result run(HttpClient client, String name, int clients, int seconds,
+                              LongFunction<String> url) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong requests = new AtomicLong();
+        // falhas por causa: status HTTP ou exceção do cliente
+        Map<String, LongAdder> errors = new ConcurrentSkipListMap<>();
+        List<Samples> latencies = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Samples samples = new Samples();
+                latencies.add(samples);
+                executor.submit(() -> {
+                    long i = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(url.apply(i++))).GET().build();
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.computeIfAbsent("HTTP " + response.statusCode(), k -> new LongAdder()).increment();
+                            }
+                        } catch (Exception e) {
+                            errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                        }
+                        samples.add((System.nanoTime() - t0) / 1000);
+                        requests.incrementAndGet();
+                    }
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long[] all = new long[latencies.stream().mapToInt(l -> l.size).sum()];
+        int offset = 0;
+        for (Samples samples : latencies) {
+            System.arraycopy(samples.values, 0, all, offset, samples.size);
+            offset += samples.size;
+        }
+        return new Result(name, requests.get(), errors, all, elapsed);
+    }
+}
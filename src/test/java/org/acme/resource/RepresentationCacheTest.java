@@ -0,0 +1,157 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import org.acme.cache.RepresentationCache;
+import org.acme.entity.Clan;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@QuarkusTest
+class RepresentationCacheTest {
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    @Inject
+    RepresentationCache representationCache;
+
+    @Test
+    void clanRenameEvictsItsMembers() {
+        String suffix = suffix();
+        int clanId = create("/clans", "{\"name\":\"Clã Cache " + suffix + "\",\"description\":\"antes\"}");
+        int characterId = create("/characters", "{\"name\":\"Membro Cache " + suffix + "\",\"rank\":\"GRADE_2\","
+                + "\"clanName\":\"Clã Cache " + suffix + "\"}");
+        String before = primed("/characters/" + characterId, "clanName", "Clã Cache " + suffix);
+
+        given().contentType("application/json")
+                .body("{\"name\":\"Clã Renomeado " + suffix + "\",\"description\":\"depois\"}")
+                .when().put("/clans/" + clanId)
+                .then().statusCode(200);
+
+        assertChanged("/characters/" + characterId, before, "clanName", "Clã Renomeado " + suffix);
+    }
+
+    @Test
+    void newMemberEvictsTheClan() {
+        String suffix = suffix();
+        int clanId = create("/clans", "{\"name\":\"Clã Vazio " + suffix + "\",\"description\":\"sem membros\"}");
+        String before = primed("/clans/" + clanId, "memberIds", List.of());
+
+        int characterId = create("/characters", "{\"name\":\"Recruta " + suffix + "\",\"rank\":\"GRADE_4\","
+                + "\"clanName\":\"Clã Vazio " + suffix + "\"}");
+
+        assertChanged("/clans/" + clanId, before, "memberIds", List.of(characterId));
+    }
+
+    @Test
+    void techniqueRenameAndDeleteEvictTheirUsers() {
+        String suffix = suffix();
+        int techniqueId = create("/techniques", "{\"name\":\"Técnica Cache " + suffix + "\",\"description\":\"antes\"}");
+        int characterId = create("/characters", "{\"name\":\"Usuário Cache " + suffix + "\",\"rank\":\"GRADE_1\","
+                + "\"techniqueNames\":[\"Técnica Cache " + suffix + "\"]}");
+        String before = primed("/characters/" + characterId, "techniques", List.of("Técnica Cache " + suffix));
+
+        given().contentType("application/json")
+                .body("{\"name\":\"Técnica Renomeada " + suffix + "\",\"description\":\"depois\"}")
+                .when().put("/techniques/" + techniqueId)
+                .then().statusCode(200);
+        String renamed = assertChanged("/characters/" + characterId, before,
+                "techniques", List.of("Técnica Renomeada " + suffix));
+
+        given().when().delete("/techniques/" + techniqueId).then().statusCode(204);
+        assertChanged("/characters/" + characterId, renamed, "techniques", List.of());
+    }
+
+    @Test
+    void expansionChangesEvictItsOwner() {
+        String suffix = suffix();
+        int expansionId = create("/domain-expansions", "{\"name\":\"Domínio Cache " + suffix + "\",\"effect\":\"antes\"}");
+        int characterId = create("/characters", "{\"name\":\"Dono Cache " + suffix + "\",\"rank\":\"SPECIAL_GRADE\","
+                + "\"domainExpansionName\":\"Domínio Cache " + suffix + "\"}");
+        String before = primed("/characters/" + characterId, "domainExpansionName", "Domínio Cache " + suffix);
+
+        given().contentType("application/json")
+                .body("{\"name\":\"Domínio Renomeado " + suffix + "\",\"effect\":\"depois\"}")
+                .when().put("/domain-expansions/" + expansionId)
+                .then().statusCode(200);
+        String renamed = assertChanged("/characters/" + characterId, before,
+                "domainExpansionName", "Domínio Renomeado " + suffix);
+
+        given().when().delete("/domain-expansions/" + expansionId).then().statusCode(204);
+        String deleted = given().when().get("/characters/" + characterId)
+                .then()
+                .statusCode(200)
+                .body("domainExpansionName", nullValue())
+                .extract().header("ETag");
+        assertNotEquals(renamed, deleted);
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        long id = 900_000 + NEXT.incrementAndGet();
+
+        // a escrita termina enquanto a representação antiga ainda está sendo montada
+        RepresentationCache.Entry stale = representationCache.get(Clan.class, id, () -> {
+            representationCache.evict(Clan.class, id);
+            return Map.of("name", "antes");
+        }).await().indefinitely();
+        RepresentationCache.Entry fresh = representationCache.get(Clan.class, id, () -> Map.of("name", "depois"))
+                .await().indefinitely();
+
+        assertEquals("{\"name\":\"antes\"}", new String(stale.body(), StandardCharsets.UTF_8));
+        assertEquals("{\"name\":\"depois\"}", new String(fresh.body(), StandardCharsets.UTF_8));
+
+        // sem escrita concorrente a carga fica no cache
+        RepresentationCache.Entry cached = representationCache.get(Clan.class, id, () -> Map.of("name", "outra"))
+                .await().indefinitely();
+        assertEquals(fresh, cached);
+    }
+
+    private static String suffix() {
+        return "R" + NEXT.incrementAndGet() + "-" + System.nanoTime();
+    }
+
+    private static int create(String path, String body) {
+        return given().contentType("application/json")
+                .body(body)
+                .when().post(path)
+                .then().statusCode(201)
+                .extract().path("id");
+    }
+
+    // dois GETs: o segundo precisa sair do cache com o mesmo ETag
+    private static String primed(String path, String field, Object expected) {
+        String etag = given().when().get(path)
+                .then().statusCode(200)
+                .body(field, is(expected))
+                .extract().header("ETag");
+        given().header("If-None-Match", etag)
+                .when().get(path)
+                .then().statusCode(304);
+        return etag;
+    }
+
+    private static String assertChanged(String path, String before, String field, Object expected) {
+        given().header("If-None-Match", before)
+                .when().get(path)
+                .then().statusCode(200);
+        ExtractableResponse<Response> after = given().when().get(path)
+                .then().statusCode(200)
+                .body(field, is(expected))
+                .extract();
+        assertNotEquals(before, after.header("ETag"));
+        return after.header("ETag");
+    }
+}
@@ -0,0 +1,23 @@
+package org.acme.resource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoutesTest {
+
+    @Test
+    void templateJoinsClassAndMethodPaths() throws NoSuchMethodException {
+        assertEquals("/characters/{id}",
+                Routes.template(CharacterResource.class, CharacterResource.class.getMethod("getById", Long.class)));
+        assertEquals("/", Routes.template(Object.class, Object.class.getMethod("toString")));
+    }
+
+    @Test
+    void httpMethodComesFromResourceAnnotation() throws NoSuchMethodException {
+        // HEAD é servido pelo @GET: a política de um método não pode depender do verbo da primeira requisição
+        assertEquals("GET", Routes.httpMethod(
+                CharacterResource.class.getMethod("getById", Long.class), "HEAD"));
+        assertEquals("HEAD", Routes.httpMethod(Object.class.getMethod("toString"), "head"));
+    }
+}
@@ -0,0 +1,88 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(VirtualThreadPinningTest.VirtualThreads.class)
+class VirtualThreadPinningTest {
+
+    // build com virtual threads e banco próprio
+    public static class VirtualThreads implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.virtual-threads.enabled", "true");
+        }
+    }
+
+    private static final int WRITERS = 16;
+
+    @Test
+    void concurrentReadsAndWritesDoNotPinCarrierThreads() throws Exception {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.enable("jdk.VirtualThreadStart");
+            recording.start();
+
+            try (ExecutorService clients = Executors.newFixedThreadPool(WRITERS)) {
+                List<Future<Integer>> writes = new ArrayList<>();
+                List<Future<Integer>> reads = new ArrayList<>();
+                for (int i = 0; i < WRITERS; i++) {
+                    int n = i;
+                    writes.add(clients.submit(() -> given().contentType("application/json")
+                            .body("{\"name\":\"Clã Virtual " + n + "\",\"description\":\"d\"}")
+                            .when().post("/clans")
+                            .then().extract().statusCode()));
+                    reads.add(clients.submit(() -> given().when().get("/characters/search?q=go").then().extract().statusCode()));
+                    reads.add(clients.submit(() -> given().when().get("/clans?size=5").then().extract().statusCode()));
+                }
+                for (Future<Integer> write : writes) {
+                    assertEquals(201, write.get());
+                }
+                for (Future<Integer> read : reads) {
+                    assertEquals(200, read.get());
+                }
+            }
+
+            recording.stop();
+            Path file = Files.createTempFile("pinning", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        Map<String, List<RecordedEvent>> byType = events.stream()
+                .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+
+        assertTrue(byType.containsKey("jdk.VirtualThreadStart"), "requests did not run on virtual threads");
+
+        List<RecordedEvent> pinned = byType.getOrDefault("jdk.VirtualThreadPinned", List.of());
+        assertTrue(pinned.isEmpty(), () -> "carrier thread pinned at:\n" + pinned.get(0).getStackTrace().getFrames().stream()
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining("\n")));
+    }
+}
@@ -0,0 +1,38 @@
+package org.acme.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FullTextIndexTest {
+
+    @Test
+    void ranksNameMatchesAboveDescriptionAndIgnoresAccents() {
+        FullTextIndex index = new FullTextIndex();
+        index.put("technique", 1, "Ten Shadows", "Invoca shikigamis pelas sombras");
+        index.put("clan", 2, "Sombras", "Clã antigo");
+        index.put("clan", 3, "Gojo", "Clã dos Seis Olhos");
+
+        FullTextIndex.Result result = index.search("SOMBRAS", null, 10);
+
+        assertEquals(2, result.total());
+        assertEquals(2L, result.hits().get(0).id());
+        assertEquals(1L, result.hits().get(1).id());
+        assertEquals(3L, index.search("cla dos olhos", "clan", 10).hits().get(0).id());
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceDocuments() {
+        FullTextIndex index = new FullTextIndex();
+        index.put("clan", 1, "Zenin", "Técnica hereditária");
+        index.put("clan", 1, "Kamo", "Manipulação de sangue");
+
+        assertEquals(0, index.search("zenin", null, 10).total());
+        assertEquals(1, index.search("sangue", null, 10).total());
+
+        index.remove("clan", 1);
+        assertTrue(index.search("kamo", null, 10).hits().isEmpty());
+        assertEquals(0, index.size());
+    }
+}
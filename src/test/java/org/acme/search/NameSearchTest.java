@@ -0,0 +1,58 @@
+package org.acme.search;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.acme.entity.Clan;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class NameSearchTest {
+
+    @Inject
+    NameSearch nameSearch;
+
+    @Inject
+    EntityManager em;
+
+    @Test
+    void indexedTermsBecomeAnIdFilterCheckedWithLike() {
+        NameSearch.Filter filter = nameSearch.filter(Clan.class, "ZÊNIN");
+
+        assertEquals("id in :nameIds and normalizedName like :nameQuery", filter.predicate());
+        assertEquals(Map.of("nameIds", List.of(1L), "nameQuery", "%zenin%"), filter.parameters());
+    }
+
+    @Test
+    void shortTermsUseLikeAndMissesMatchNothing() {
+        assertEquals(new NameSearch.Filter("normalizedName like :nameQuery", Map.of("nameQuery", "%go%")),
+                nameSearch.filter(Clan.class, "Go"));
+        assertEquals(new NameSearch.Filter("1 = 0", Map.of()), nameSearch.filter(Clan.class, "inexistente"));
+    }
+
+    @Test
+    void likeDropsCandidatesRenamedBehindTheIndex() {
+        // renomeado por SQL: o índice ainda aponta "kamo" para o clã 3
+        QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                        "update clan set name = 'Kamo Antigo', name_normalized = 'clã renomeado' where id = 3")
+                .executeUpdate());
+        try {
+            given().when().get("/clans/search?q=kamo")
+                    .then()
+                    .statusCode(200)
+                    .body("clans.size()", is(0));
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                            "update clan set name = 'Kamo', name_normalized = 'kamo' where id = 3")
+                    .executeUpdate());
+        }
+    }
+}
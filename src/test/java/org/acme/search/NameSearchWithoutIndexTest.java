@@ -0,0 +1,55 @@
+package org.acme.search;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.acme.entity.Clan;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(NameSearchWithoutIndexTest.MultipleReplicas.class)
+class NameSearchWithoutIndexTest {
+
+    public static class MultipleReplicas implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("kokusen.search.name-index.enabled", "false");
+        }
+    }
+
+    @Inject
+    NameSearch nameSearch;
+
+    @Inject
+    EntityManager em;
+
+    @Test
+    void everyTermGoesToTheNormalizedColumn() {
+        assertEquals(new NameSearch.Filter("normalizedName like :nameQuery", Map.of("nameQuery", "%zenin%")),
+                nameSearch.filter(Clan.class, "Zenin"));
+    }
+
+    @Test
+    void rowsWrittenOutsideThisInstanceAreFound() {
+        // como uma escrita de outra réplica: nada passa pelo NameSearch desta instância
+        QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                        "insert into clan (id, name, name_normalized, description) "
+                                + "values (900, 'Clã Replicado', 'cla replicado', 'gravado por outra réplica')")
+                .executeUpdate());
+
+        given().when().get("/clans/search?q=replicado")
+                .then()
+                .statusCode(200)
+                .body("clans.size()", is(1))
+                .body("clans[0].id", is(900));
+    }
+}
@@ -0,0 +1,61 @@
+package org.acme.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TrigramIndexTest {
+
+    @Test
+    void findsSubstringsAnywhereInTheName() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "satoru gojo");
+        index.put(2, "maki zenin");
+        index.put(3, "toji zenin");
+
+        assertEquals(Set.of(2L, 3L), index.search("zenin"));
+        assertEquals(Set.of(1L), index.search("oru go"));
+        assertEquals(Set.of(), index.search("kamo"));
+    }
+
+    @Test
+    void termsShorterThanAGramAreNotAnswered() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "gojo");
+
+        assertNull(index.search("go"));
+        assertNull(index.search(null));
+    }
+
+    @Test
+    void candidatesHavingEveryGramButNotTheSubstringAreDropped() {
+        TrigramIndex index = new TrigramIndex();
+        // "abc" e "bcd" aparecem, mas "abcd" não
+        index.put(1, "abcxbcd");
+
+        assertEquals(Set.of(), index.search("abcd"));
+    }
+
+    @Test
+    void renameAndRemovalReplaceTheEntry() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "zenin");
+        index.put(1, "kamo");
+
+        assertEquals(Set.of(), index.search("zenin"));
+        assertEquals(Set.of(1L), index.search("kamo"));
+        assertEquals(1, index.size());
+
+        index.remove(1);
+        assertEquals(Set.of(), index.search("kamo"));
+        assertEquals(0, index.size());
+
+        // remover de novo (ou um id que nunca entrou) não falha
+        index.remove(1);
+        index.put(2, null);
+        assertEquals(0, index.size());
+    }
+}
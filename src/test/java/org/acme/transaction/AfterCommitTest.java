@@ -0,0 +1,71 @@
+package org.acme.transaction;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.QuarkusTransactionException;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.acme.entity.Clan;
+import org.acme.search.FullTextIndex;
+import org.acme.search.FullTextSearch;
+import org.acme.search.NameSearch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@QuarkusTest
+class AfterCommitTest {
+
+    @Inject
+    NameSearch nameSearch;
+
+    @Inject
+    FullTextSearch fullTextSearch;
+
+    @Test
+    void createMarkedForRollbackIsNotIndexed() {
+        long[] id = new long[1];
+        assertThrows(QuarkusTransactionException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            Clan clan = create("Clã Desfeito Marcado");
+            // como uma validação que falha depois de marcar a transação
+            QuarkusTransaction.setRollbackOnly();
+            nameSearch.index(Clan.class, clan.id, clan.name);
+            fullTextSearch.index(Clan.class, clan.id, clan.name, clan.description);
+            id[0] = clan.id;
+        }));
+
+        assertNotIndexed(id[0], "Clã Desfeito Marcado");
+    }
+
+    @Test
+    void createRolledBackAfterIndexingIsNotIndexed() {
+        long[] id = new long[1];
+        QuarkusTransaction.begin();
+        try {
+            Clan clan = create("Clã Desfeito Depois");
+            nameSearch.index(Clan.class, clan.id, clan.name);
+            fullTextSearch.index(Clan.class, clan.id, clan.name, clan.description);
+            id[0] = clan.id;
+        } finally {
+            QuarkusTransaction.rollback();
+        }
+
+        assertNotIndexed(id[0], "Clã Desfeito Depois");
+    }
+
+    private static Clan create(String name) {
+        Clan clan = new Clan(name, "zzdesfeito");
+        clan.persist();
+        clan.flush();
+        return clan;
+    }
+
+    private void assertNotIndexed(long id, String name) {
+        NameSearch.Filter filter = nameSearch.filter(Clan.class, name);
+        assertEquals("1 = 0", filter.predicate());
+
+        FullTextIndex.Result result = fullTextSearch.search("zzdesfeito", null, 10);
+        assertFalse(result.hits().stream().anyMatch(hit -> hit.id() == id));
+    }
+}